@@ -0,0 +1,22 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks. Arguments are passed to JMH unchanged, except that the gc profiler is added when no
+ * profiler is named, so every run reports allocation per operation next to throughput.
+ * <p>
+ * For example, "GameBenchmarks.validMoves -p position=KIWIPETE" runs one benchmark on one position.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if(!jmhArgs.contains("-prof")) {
+            jmhArgs.add("-prof");
+            jmhArgs.add("gc");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
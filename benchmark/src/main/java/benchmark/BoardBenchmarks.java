@@ -0,0 +1,55 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessPosition;
+import chess.SlidingAttacks;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board setup, and the slider attack tables against the square-by-square walk they replaced
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmarks {
+
+    @Param
+    public GamePosition position;
+
+    private ChessBoard board;
+    private long occupied;
+
+    @Setup
+    public void setup() {
+        board = new ChessBoard();
+        ChessBoard positionBoard = position.getPosition().newGame().getBoard();
+        for(int square = 0; square < 64; square++){
+            if(positionBoard.getPiece(ChessPosition.of(square / 8 + 1, square % 8 + 1)) != null) {occupied |= 1L << square;}
+        }
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        board.resetBoard();
+        return board;
+    }
+
+    @Benchmark
+    public void queenAttackTables(Blackhole blackhole) {
+        for(int square = 0; square < 64; square++) {blackhole.consume(SlidingAttacks.queenAttacks(square, occupied));}
+    }
+
+    @Benchmark
+    public void queenAttackWalk(Blackhole blackhole) {
+        for(int square = 0; square < 64; square++){
+            blackhole.consume(SlidingAttacks.walkRookAttacks(square, occupied)
+                    | SlidingAttacks.walkBishopAttacks(square, occupied));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChessGame calls a MAKE_MOVE request goes through: validating and making the move, then checking the
+ * opponent for check, checkmate and stalemate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmarks {
+
+    /**
+     * A fresh copy of the benchmark's game for every invocation. ChessGame caches legal moves and status for the
+     * position, and a copy starts without them, so benchmarks taking this measure the engine rather than the
+     * cache, as they did before it existed.
+     */
+    @State(Scope.Thread)
+    public static class ColdGame {
+        ChessGame game;
+
+        @Setup(Level.Invocation)
+        public void copy(GameBenchmarks benchmarks) {
+            game = new ChessGame(benchmarks.game);
+        }
+    }
+
+    @Param
+    public GamePosition position;
+
+    private ChessGame game;
+    private List<ChessPosition> movablePieces;
+    private ChessMove move;
+
+    @Setup
+    public void setup() {
+        game = position.getPosition().newGame();
+        movablePieces = new ArrayList<>();
+        for(int row = 1; row <= 8; row++){
+            for(int col = 1; col <= 8; col++){
+                ChessPosition square = ChessPosition.of(row, col);
+                ChessPiece piece = game.getBoard().getPiece(square);
+                if(piece != null && piece.getTeamColor() == game.getTeamTurn() && !game.validMoves(square).isEmpty()) {
+                    movablePieces.add(square);
+                }
+            }
+        }
+        move = game.validMoves(movablePieces.getFirst()).iterator().next();
+    }
+
+    /**
+     * Every legal move of the side to move, one piece at a time as the client and server ask for them
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for(ChessPosition square : movablePieces) {blackhole.consume(game.validMoves(square));}
+    }
+
+    /**
+     * Made on a fresh copy each time so every invocation starts from the same position with nothing cached
+     */
+    @Benchmark
+    public ChessGame makeMove(ColdGame cold) throws InvalidMoveException {
+        cold.game.makeMove(move);
+        return cold.game;
+    }
+
+    /**
+     * Taken back each time, which returns to the same position, so validation reuses the cached legal moves
+     */
+    @Benchmark
+    public ChessGame makeMoveCached() throws InvalidMoveException {
+        game.makeMove(move);
+        game.unmakeMove();
+        return game;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate(ColdGame cold) {
+        return cold.game.isInCheckmate(cold.game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate(ColdGame cold) {
+        return cold.game.isInStalemate(cold.game.getTeamTurn());
+    }
+
+    /**
+     * Asked again of the same game, as the status checks after a move are, so answered from the cache
+     */
+    @Benchmark
+    public boolean isInCheckmateCached() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+}
@@ -0,0 +1,22 @@
+package benchmark;
+
+import chess.PerftPosition;
+
+/**
+ * The game phases each benchmark is run on, taken from the perft reference positions
+ */
+public enum GamePosition {
+    OPENING(PerftPosition.START),
+    MIDDLEGAME(PerftPosition.KIWIPETE),
+    ENDGAME(PerftPosition.POSITION_3);
+
+    private final PerftPosition position;
+
+    GamePosition(PerftPosition position) {
+        this.position = position;
+    }
+
+    public PerftPosition getPosition() {
+        return position;
+    }
+}
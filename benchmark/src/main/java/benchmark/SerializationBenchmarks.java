@@ -0,0 +1,60 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.GameCodec;
+import org.openjdk.jmh.annotations.*;
+import serialization.Serializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round trip of a game through the shared serializer, as done for every database read and write and every
+ * LOAD_GAME message, and the same through the binary codec used for BLOB storage
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmarks {
+
+    @Param
+    public GamePosition position;
+
+    private ChessGame game;
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        game = position.getPosition().newGame();
+        json = Serializer.gameToJson(game);
+        bytes = GameCodec.toBytes(game);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return Serializer.gameToJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return Serializer.gameFromJson(json);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return Serializer.gameFromJson(Serializer.gameToJson(game));
+    }
+
+    @Benchmark
+    public byte[] toBytes() {
+        return GameCodec.toBytes(game);
+    }
+
+    @Benchmark
+    public ChessGame fromBytes() {
+        return GameCodec.fromBytes(bytes);
+    }
+}
@@ -143,7 +143,7 @@ public class GameRepl {
                 promotionPiece = ChessPiece.PieceType.valueOf(scanner.nextLine().toUpperCase());
             }
 
-            ChessMove move = new ChessMove(startPosition, endPosition, promotionPiece);
+            ChessMove move = ChessMove.of(startPosition, endPosition, promotionPiece);
             facade.makeMove(authToken, gameData.gameID(), move);
         }
         catch (RuntimeException e){
@@ -201,7 +201,7 @@ public class GameRepl {
             throw new RuntimeException("Position out of bounds");
         }
 
-        return new ChessPosition(r, c);
+        return ChessPosition.of(r, c);
 
 
     }
@@ -209,7 +209,9 @@ public class GameRepl {
     public void displayBoard(ChessBoard board, ChessGame.TeamColor color, ChessPosition highlightPosition){
         List<ChessPosition> highlightPositions = new ArrayList<>();
         if(highlightPosition != null){
-            for(ChessMove move : getGameData().game().validMoves(highlightPosition)){
+            ChessGame game = getGameData().game();
+            ChessGame.TeamColor pieceColor = game.getBoard().getPiece(highlightPosition).getTeamColor();
+            for(ChessMove move : game.getLegalMoves(pieceColor).from(highlightPosition)){
                 highlightPositions.add(move.getEndPosition());
             }
         }
@@ -259,9 +261,9 @@ public class GameRepl {
             out.append(EscapeSequences.SET_BG_COLOR_DARK_GREY).append(" ").append(r).append(" ");
             for (int c = startC; c != endC; c+=incC){
 
-                ChessPiece piece = board.getPiece(new ChessPosition(r, c));
+                ChessPiece piece = board.getPiece(ChessPosition.of(r, c));
                 String background;
-                ChessPosition curPosition = new ChessPosition(r, c);
+                ChessPosition curPosition = ChessPosition.of(r, c);
 
                 if(curPosition.equals(highlightPosition)){
                     background = EscapeSequences.SET_BG_COLOR_YELLOW;
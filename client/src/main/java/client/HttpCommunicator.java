@@ -1,6 +1,6 @@
 package client;
 
-import com.google.gson.Gson;
+import serialization.Serializer;
 
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -28,7 +28,7 @@ public class HttpCommunicator {
 
     public HttpRequest.BodyPublisher makeRequestBody(Object request) {
         if (request != null) {
-            return HttpRequest.BodyPublishers.ofString(new Gson().toJson(request));
+            return HttpRequest.BodyPublishers.ofString(Serializer.toJson(request));
         } else {
             return HttpRequest.BodyPublishers.noBody();
         }
@@ -54,7 +54,7 @@ public class HttpCommunicator {
         }
 
         if (responseClass != null) {
-            return new Gson().fromJson(response.body(), responseClass);
+            return Serializer.fromJson(response.body(), responseClass);
         }
 
         return null;
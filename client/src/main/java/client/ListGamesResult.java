@@ -1,6 +1,6 @@
 package client;
 
-import model.GameData;
+import model.GameSummary;
 
-public record ListGamesResult(GameData[] games) {
+public record ListGamesResult(GameSummary[] games, Integer nextCursor) {
 }
@@ -1,7 +1,7 @@
 package client;
 
 import chess.ChessGame;
-import model.GameData;
+import model.GameSummary;
 
 import java.util.Scanner;
 
@@ -67,8 +67,8 @@ public class PostRepl {
 
             case "list":
                 try{
-                    GameData[] gamesList = facade.listGames(loginResult.authToken()).games();
-                    for(GameData game : gamesList) {
+                    GameSummary[] gamesList = facade.listGames(loginResult.authToken()).games();
+                    for(GameSummary game : gamesList) {
                         System.out.println(game.gameID() + ": " + game.gameName());
                     }
                 }
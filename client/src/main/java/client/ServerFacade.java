@@ -1,10 +1,14 @@
 package client;
 
 import chess.ChessMove;
+import model.GameSummary;
 import model.UserData;
 
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class ServerFacade {
 
@@ -41,8 +45,26 @@ public class ServerFacade {
         return httpCommunicator.handleResponse(response, CreateGameResult.class);
     }
 
+    /**
+     * Lists every game, following the server's pages
+     */
     public ListGamesResult listGames(String authToken) {
-        HttpRequest request = httpCommunicator.buildRequest("GET", "/game", authToken, null);
+        List<GameSummary> games = new ArrayList<>();
+        Integer cursor = null;
+        do {
+            ListGamesResult page = listGames(authToken, cursor);
+            games.addAll(Arrays.asList(page.games()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return new ListGamesResult(games.toArray(new GameSummary[0]), null);
+    }
+
+    /**
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public ListGamesResult listGames(String authToken, Integer cursor) {
+        String path = (cursor == null) ? "/game" : "/game?cursor=" + cursor;
+        HttpRequest request = httpCommunicator.buildRequest("GET", path, authToken, null);
         HttpResponse<String> response = httpCommunicator.sendRequest(request);
         return httpCommunicator.handleResponse(response, ListGamesResult.class);
     }
@@ -1,10 +1,10 @@
 package client;
 
 import chess.ChessMove;
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import jakarta.websocket.*;
+import serialization.Serializer;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ErrorMessage;
@@ -19,7 +19,6 @@ import java.net.URISyntaxException;
 public class WebsocketCommunicator extends Endpoint {
     Session session;
     ServerMessageObserver notificationHandler;
-    private final Gson gson = new Gson();
 
     public WebsocketCommunicator(String url, ServerMessageObserver notificationHandler) {
         try {
@@ -39,9 +38,9 @@ public class WebsocketCommunicator extends Endpoint {
 
                     ServerMessage notification;
                     switch (type) {
-                        case "LOAD_GAME" -> notification = gson.fromJson(message, LoadGameMessage.class);
-                        case "NOTIFICATION" -> notification = gson.fromJson(message, NotificationMessage.class);
-                        case "ERROR" -> notification = gson.fromJson(message, ErrorMessage.class);
+                        case "LOAD_GAME" -> notification = Serializer.fromJson(obj, LoadGameMessage.class);
+                        case "NOTIFICATION" -> notification = Serializer.fromJson(obj, NotificationMessage.class);
+                        case "ERROR" -> notification = Serializer.fromJson(obj, ErrorMessage.class);
                         default -> throw new IllegalStateException("Unknown message type: " + type);
                     }
 
@@ -71,7 +70,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void connect(String authToken, int gameID){
         try {
             UserGameCommand command = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Serializer.toJson(command));
         } catch (IOException ex) {
             throw new RuntimeException(ex.getMessage());
         }
@@ -80,7 +79,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void makeMove(String authToken, int gameID, ChessMove move){
         try {
             UserGameCommand command = new MakeMoveCommand(UserGameCommand.CommandType.MAKE_MOVE, authToken, gameID, move);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Serializer.toJson(command));
         } catch (IOException ex) {
             throw new RuntimeException(ex.getMessage());
         }
@@ -89,7 +88,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void leave(String authToken, int gameID){
         try {
             UserGameCommand command = new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Serializer.toJson(command));
         } catch (IOException ex) {
             throw new RuntimeException(ex.getMessage());
         }
@@ -98,7 +97,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void resign(String authToken, int gameID){
         try {
             UserGameCommand command = new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Serializer.toJson(command));
         } catch (IOException ex) {
             throw new RuntimeException(ex.getMessage());
         }
@@ -0,0 +1,115 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps recently used auth tokens in memory in front of another AuthDAO, since a token is looked up on every
+ * request and websocket command. Tokens that were not found are remembered too, for a shorter time, so
+ * repeated guesses at invalid tokens do not each reach the database.
+ * <p>
+ * At most maxSize tokens are held, least recently used evicted first, and each is read again once it is older
+ * than its time to live. Deleting a token or clearing goes through this DAO and drops the cached copy, so
+ * every write to the auth table must be made through the same instance.
+ */
+public class CachingAuthDAO implements AuthDAO {
+
+    // data is null for a token the underlying DAO did not have
+    private record Entry(AuthData data, long expiresAt) {
+    }
+
+    private final AuthDAO delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    // Guarded by this; database calls are made outside the lock
+    private final LinkedHashMap<String, Entry> cache;
+    // Bumped by every write, so a read that raced a login or logout does not cache what it read before it
+    private long invalidations;
+
+    public CachingAuthDAO(AuthDAO delegate, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        if(maxSize < 1) {throw new IllegalArgumentException("Cache size must be positive");}
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            delegate.clear();
+        } finally {
+            synchronized (this) {
+                cache.clear();
+                invalidations++;
+            }
+        }
+    }
+
+    @Override
+    public void createAuth(AuthData data) throws DataAccessException {
+        try {
+            delegate.createAuth(data);
+        } catch (DataAccessException | RuntimeException e) {
+            invalidate(data.authToken());
+            throw e;
+        }
+        synchronized (this) {
+            invalidations++;
+            cache(data.authToken(), data, ttlNanos);
+        }
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if(authToken == null) {return delegate.getAuth(null);}
+        long seen;
+        synchronized (this) {
+            Entry entry = cache.get(authToken);
+            if(entry != null) {
+                if(System.nanoTime() - entry.expiresAt() < 0) {return entry.data();}
+                cache.remove(authToken);
+            }
+            seen = invalidations;
+        }
+
+        AuthData data = delegate.getAuth(authToken);
+        synchronized (this) {
+            if(seen == invalidations) {cache(authToken, data, (data != null) ? ttlNanos : negativeTtlNanos);}
+        }
+        return data;
+    }
+
+    @Override
+    public void deleteAuth(AuthData data) throws DataAccessException {
+        try {
+            delegate.deleteAuth(data);
+        } finally {
+            invalidate(data.authToken());
+        }
+    }
+
+    /**
+     * @return number of tokens currently held in memory, valid or not
+     */
+    synchronized int cachedTokens() {
+        return cache.size();
+    }
+
+    private synchronized void cache(String authToken, AuthData data, long ttl) {
+        if(ttl > 0) {cache.put(authToken, new Entry(data, System.nanoTime() + ttl));}
+    }
+
+    private synchronized void invalidate(String authToken) {
+        cache.remove(authToken);
+        invalidations++;
+    }
+}
@@ -0,0 +1,153 @@
+package dataaccess;
+
+import chess.ChessMove;
+import model.GameData;
+import model.GameSummary;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps games that have connected sessions in memory in front of another GameDAO, so commands on a live game
+ * skip the database read. Writes go through to the underlying DAO before the cached copy is replaced.
+ * <p>
+ * A game is cached between {@link #retain} and the matching {@link #release}. Its copy is dropped early if it
+ * goes unused for the idle timeout, which covers sessions that vanish without closing, but its session count
+ * is kept so later releases still balance; the next read caches it again. Games without sessions are read
+ * from the underlying DAO every time. The cached GameData is shared by every caller, so callers changing
+ * a game must not do so concurrently.
+ */
+public class CachingGameDAO implements GameDAO {
+
+    private static class Entry {
+        int sessions;
+        GameData data;
+        long lastUsed;
+    }
+
+    private final GameDAO delegate;
+    private final long idleTimeoutNanos;
+    // Guarded by this; database calls are made outside the lock
+    private final Map<Integer, Entry> cache = new HashMap<>();
+
+    public CachingGameDAO(GameDAO delegate, long idleTimeoutMillis) {
+        this.delegate = delegate;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    }
+
+    @Override
+    public synchronized void retain(int gameID) {
+        evictIdle();
+        Entry entry = cache.computeIfAbsent(gameID, id -> new Entry());
+        entry.sessions++;
+        entry.lastUsed = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void release(int gameID) {
+        Entry entry = cache.get(gameID);
+        if(entry != null && --entry.sessions <= 0) {cache.remove(gameID);}
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            delegate.clear();
+        } finally {
+            synchronized (this) {
+                for(Entry entry : cache.values()) {entry.data = null;}
+            }
+        }
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        return delegate.createGame(gameName);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        synchronized (this) {
+            evictIdle();
+            Entry entry = cache.get(gameID);
+            if(entry != null) {
+                entry.lastUsed = System.nanoTime();
+                if(entry.data != null) {return entry.data;}
+            }
+        }
+
+        GameData data = delegate.getGame(gameID);
+        synchronized (this) {
+            Entry entry = cache.get(gameID);
+            if(entry == null || data == null) {return data;}
+            if(entry.data == null) {entry.data = data;}
+            return entry.data;
+        }
+    }
+
+    @Override
+    public void updateGame(GameData data) throws DataAccessException {
+        try {
+            delegate.updateGame(data);
+        } catch (DataAccessException | RuntimeException e) {
+            invalidate(data.gameID());
+            throw e;
+        }
+        cache(data);
+    }
+
+    @Override
+    public void recordMove(GameData data, ChessMove move) throws DataAccessException {
+        try {
+            delegate.recordMove(data, move);
+        } catch (DataAccessException | RuntimeException e) {
+            invalidate(data.gameID());
+            throw e;
+        }
+        cache(data);
+    }
+
+    @Override
+    public GameData[] listGames() throws DataAccessException {
+        return delegate.listGames();
+    }
+
+    @Override
+    public GameSummary[] listGames(GameQuery query) throws DataAccessException {
+        return delegate.listGames(query);
+    }
+
+    @Override
+    public void close() throws DataAccessException {
+        delegate.close();
+    }
+
+    /**
+     * @return number of games currently held in memory
+     */
+    synchronized int cachedGames() {
+        return (int) cache.values().stream().filter(entry -> entry.data != null).count();
+    }
+
+    private synchronized void cache(GameData data) {
+        Entry entry = cache.get(data.gameID());
+        if(entry != null) {
+            entry.data = data;
+            entry.lastUsed = System.nanoTime();
+        }
+    }
+
+    // A failed write may have left the cached copy ahead of the database, so it is read again next time
+    private synchronized void invalidate(int gameID) {
+        Entry entry = cache.get(gameID);
+        if(entry != null) {entry.data = null;}
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for(Entry entry : cache.values()) {
+            if(now - entry.lastUsed > idleTimeoutNanos) {entry.data = null;}
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of database connections, so a request reuses an open connection instead of paying for a new
+ * TCP connection and login each time.
+ * <p>
+ * {@link #borrow()} hands out a wrapper whose close() returns the connection to the pool, so callers keep using
+ * try-with-resources as with a plain connection. At most maxSize connections are open at once; borrowers wait
+ * up to the borrow timeout for one to come back. Idle connections are closed once they have been idle longer
+ * than the idle timeout, by a background sweep every half timeout and on every borrow, and are checked with
+ * isValid before being handed out again. Close the pool to stop the sweep and close its idle connections.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Counters since the pool was created
+     *
+     * @param active connections currently borrowed
+     * @param idle open connections waiting in the pool
+     * @param created physical connections opened
+     * @param discarded physical connections closed for being idle too long, invalid or broken
+     * @param borrows successful borrows
+     * @param timeouts borrows that gave up waiting for a connection
+     * @param totalWaitNanos time borrowers spent waiting for a free slot
+     */
+    public record Stats(int active, int idle, long created, long discarded, long borrows, long timeouts,
+                        long totalWaitNanos) {
+    }
+
+    private record IdleConnection(Connection connection, long returnedAt) {
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long borrowTimeoutNanos;
+    private final int validationTimeoutSeconds;
+    private final Semaphore permits;
+    // Most recently returned first, so surplus connections sink to the end and age out
+    private final ArrayDeque<IdleConnection> idle = new ArrayDeque<>();
+    private volatile boolean closed;
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+                          int validationTimeoutSeconds) {
+        if(maxSize < 1) {throw new IllegalArgumentException("Pool size must be positive");}
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return a connection that goes back to the pool when closed
+     * @throws SQLTransientConnectionException if no connection came free within the borrow timeout
+     */
+    public Connection borrow() throws SQLException {
+        if(closed) {throw new SQLException("Connection pool is closed");}
+        long start = System.nanoTime();
+        try {
+            if(!permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTransientConnectionException("Timed out waiting for one of " + maxSize + " database connections");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        }
+        waitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            Connection physical = takeIdle();
+            if(physical == null) {
+                physical = factory.open();
+                created.incrementAndGet();
+            }
+            borrows.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Stats getStats() {
+        int idleCount;
+        synchronized (this) {
+            idleCount = idle.size();
+        }
+        return new Stats(maxSize - permits.availablePermits(), idleCount, created.get(), discarded.get(),
+                borrows.get(), timeouts.get(), waitNanos.get());
+    }
+
+    /**
+     * Closes every idle connection; borrowed ones are closed as they are returned
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        List<IdleConnection> drained;
+        synchronized (this) {
+            drained = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for(IdleConnection entry : drained) {discard(entry.connection());}
+    }
+
+    /**
+     * Closes the connections that have been idle longer than the idle timeout
+     */
+    public void evictIdle() {
+        List<IdleConnection> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            while(!idle.isEmpty() && now - idle.peekLast().returnedAt() > idleTimeoutNanos) {
+                expired.add(idle.pollLast());
+            }
+        }
+        for(IdleConnection old : expired) {discard(old.connection());}
+    }
+
+    private Connection takeIdle() {
+        evictIdle();
+        while(true){
+            IdleConnection entry;
+            synchronized (this) {
+                entry = idle.pollFirst();
+            }
+
+            if(entry == null) {return null;}
+            if(isValid(entry.connection())) {return entry.connection();}
+            discard(entry.connection());
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection physical) {
+        try {
+            if(closed || physical.isClosed()) {
+                discard(physical);
+                return;
+            }
+            if(!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            synchronized (this) {
+                idle.addFirst(new IdleConnection(physical, System.nanoTime()));
+            }
+        } catch (SQLException e) {
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Connection physical) {
+        discarded.incrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            // Already unusable, which is why it is being discarded
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if(returned.compareAndSet(false, true)) {release(physical);}
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            if(returned.get()) {return true;}
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            if(returned.get()) {throw new SQLException("Connection has been returned to the pool");}
+                        }
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -23,6 +23,24 @@ public class DatabaseAuthDAO implements AuthDAO{
         DatabaseManager.configureDatabase(createStatements);
     }
 
+    /**
+     * Creates the auth DAO db.properties asks for: a DatabaseAuthDAO behind a {@link CachingAuthDAO} unless
+     * db.authCache is false. The cache holds db.authCache.size tokens (default 10000) for
+     * db.authCache.ttlMillis (default 300000), and remembers unknown tokens for db.authCache.negativeTtlMillis
+     * (default 30000). Share the result between everything that reads or writes tokens, so a logout drops the
+     * cached token.
+     */
+    public static AuthDAO fromProperties() throws DataAccessException {
+        AuthDAO authDAO = new DatabaseAuthDAO();
+        if(Boolean.parseBoolean(DatabaseManager.getProperty("db.authCache", "true").trim())) {
+            int size = Integer.parseInt(DatabaseManager.getProperty("db.authCache.size", "10000").trim());
+            long ttl = Long.parseLong(DatabaseManager.getProperty("db.authCache.ttlMillis", "300000").trim());
+            long negativeTtl = Long.parseLong(DatabaseManager.getProperty("db.authCache.negativeTtlMillis", "30000").trim());
+            authDAO = new CachingAuthDAO(authDAO, size, ttl, negativeTtl);
+        }
+        return authDAO;
+    }
+
     @Override
     public void clear() throws DataAccessException {
         var statement = "TRUNCATE auth";
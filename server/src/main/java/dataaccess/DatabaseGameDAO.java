@@ -1,18 +1,41 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.GameCodec;
 import model.GameData;
+import model.GameSummary;
+import serialization.Serializer;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class DatabaseGameDAO implements GameDAO{
 
+    /**
+     * How game state is written: as JSON in the game TEXT column, or packed by {@link GameCodec} into the state
+     * BLOB column. Rows in either format are read back whichever one is configured.
+     */
+    public enum Format {
+        JSON,
+        BINARY
+    }
+
+    private final Format format;
+
+    /**
+     * Uses the format named by db.gameFormat in db.properties, JSON if it is not set
+     */
     public DatabaseGameDAO() throws DataAccessException{
+        this(configuredFormat());
+    }
+
+    public DatabaseGameDAO(Format format) throws DataAccessException{
+        this.format = format;
         String[] createStatements = {
                 """
             CREATE TABLE IF NOT EXISTS  game (
@@ -21,6 +44,7 @@ public class DatabaseGameDAO implements GameDAO{
               `whiteUsername` varchar(256),
               `blackUsername` varchar(256),
               `game` TEXT DEFAULT NULL,
+              `state` BLOB DEFAULT NULL,
               PRIMARY KEY (`id`),
               INDEX(whiteUsername),
               INDEX(blackUsername)
@@ -28,6 +52,35 @@ public class DatabaseGameDAO implements GameDAO{
             """
         };
         DatabaseManager.configureDatabase(createStatements);
+        DatabaseManager.addColumnIfMissing("game", "state", "BLOB DEFAULT NULL");
+    }
+
+    /**
+     * Creates the game DAO db.properties asks for: a {@link MoveLogGameDAO} if db.moveLog is true, otherwise a
+     * DatabaseGameDAO that rewrites the whole game on every update. If db.writeBehind is true, updates are
+     * queued in a {@link WriteBehindGameDAO} and written at least every db.writeBehind.intervalMillis, with the
+     * queue flushed on {@link GameDAO#close()} or when the JVM shuts down. All of it sits behind a {@link CachingGameDAO} unless db.gameCache
+     * is false. Share the result between everything that reads or writes games, so the cache sees every write.
+     */
+    public static GameDAO fromProperties() throws DataAccessException {
+        GameDAO gameDAO = Boolean.parseBoolean(DatabaseManager.getProperty("db.moveLog", "false").trim())
+                ? new MoveLogGameDAO() : new DatabaseGameDAO();
+        if(Boolean.parseBoolean(DatabaseManager.getProperty("db.writeBehind", "false").trim())) {
+            long interval = Long.parseLong(DatabaseManager.getProperty("db.writeBehind.intervalMillis", "1000").trim());
+            int maxPending = Integer.parseInt(DatabaseManager.getProperty("db.writeBehind.maxPending", "256").trim());
+            WriteBehindGameDAO writeBehind = new WriteBehindGameDAO(gameDAO, interval, maxPending);
+            writeBehind.closeOnShutdown();
+            gameDAO = writeBehind;
+        }
+        if(Boolean.parseBoolean(DatabaseManager.getProperty("db.gameCache", "true").trim())) {
+            long idleTimeout = Long.parseLong(DatabaseManager.getProperty("db.gameCache.idleTimeoutMillis", "600000").trim());
+            gameDAO = new CachingGameDAO(gameDAO, idleTimeout);
+        }
+        return gameDAO;
+    }
+
+    static Format configuredFormat() {
+        return Format.valueOf(DatabaseManager.getProperty("db.gameFormat", "json").trim().toUpperCase());
     }
 
     @Override
@@ -37,9 +90,9 @@ public class DatabaseGameDAO implements GameDAO{
 
     @Override
     public int createGame(String gameName) throws DataAccessException {
-        var statement = "INSERT INTO game (name, whiteUsername, blackUsername, game) VALUES (?, ?, ?, ?)";
-        String json = new Gson().toJson(new ChessGame());
-        return DatabaseManager.executeUpdate(statement, gameName, null, null, json);
+        var statement = "INSERT INTO game (name, whiteUsername, blackUsername, game, state) VALUES (?, ?, ?, ?, ?)";
+        ChessGame game = new ChessGame();
+        return DatabaseManager.executeUpdate(statement, gameName, null, null, json(game), state(game));
     }
 
     @Override
@@ -62,9 +115,23 @@ public class DatabaseGameDAO implements GameDAO{
 
     @Override
     public void updateGame(GameData data) throws DataAccessException {
-        var statement = "UPDATE game SET name = ?, whiteUsername=?, blackUsername=?, game=? WHERE id = ?";
-        String json = new Gson().toJson(data.game());
-        DatabaseManager.executeUpdate(statement, data.gameName(), data.whiteUsername(), data.blackUsername(), json, data.gameID());
+        var statement = "UPDATE game SET name = ?, whiteUsername=?, blackUsername=?, game=?, state=? WHERE id = ?";
+        DatabaseManager.executeUpdate(statement, data.gameName(), data.whiteUsername(), data.blackUsername(),
+                json(data.game()), state(data.game()), data.gameID());
+    }
+
+    /**
+     * Writes every game in one JDBC batch and transaction
+     */
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        var statement = "UPDATE game SET name = ?, whiteUsername=?, blackUsername=?, game=?, state=? WHERE id = ?";
+        List<Object[]> rows = new ArrayList<>();
+        for(GameData data : games) {
+            rows.add(new Object[]{data.gameName(), data.whiteUsername(), data.blackUsername(),
+                    json(data.game()), state(data.game()), data.gameID()});
+        }
+        DatabaseManager.executeBatch(statement, rows);
     }
 
     @Override
@@ -85,15 +152,66 @@ public class DatabaseGameDAO implements GameDAO{
         return result.toArray(new GameData[0]);
     }
 
-    private GameData readGame(ResultSet rs) throws SQLException {
+    @Override
+    public GameSummary[] listGames(GameQuery query) throws DataAccessException {
+        StringBuilder statement = new StringBuilder("SELECT id, name, whiteUsername, blackUsername FROM game WHERE id > ?");
+        ArrayList<Object> params = new ArrayList<>();
+        params.add(query.afterGameID());
+        if(query.player() != null) {
+            statement.append(" AND (whiteUsername = ? OR blackUsername = ?)");
+            params.add(query.player());
+            params.add(query.player());
+        }
+        if(query.openSeatsOnly()) {
+            statement.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+        }
+        if(query.namePrefix() != null) {
+            statement.append(" AND name LIKE ? ESCAPE '!'");
+            params.add(query.namePrefix().replaceAll("([!%_])", "!$1") + "%");
+        }
+        statement.append(" ORDER BY id");
+        if(query.limit() != GameQuery.UNLIMITED) {
+            statement.append(" LIMIT ?");
+            params.add(query.limit());
+        }
+
+        ArrayList<GameSummary> result = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(statement.toString())) {
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new GameSummary(rs.getInt("id"), rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"), rs.getString("name")));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new DataAccessException(String.format("Unable to read data: %s", e.getMessage()));
+        }
+        return result.toArray(new GameSummary[0]);
+    }
+
+    GameData readGame(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         String gameName = rs.getString("name");
         String whiteUsername = rs.getString("whiteUsername");
         String blackUsername = rs.getString("blackUsername");
-        String json = rs.getString("game");
+        byte[] state = rs.getBytes("state");
 
-        ChessGame game = new Gson().fromJson(json, ChessGame.class);
+        ChessGame game = (state != null) ? GameCodec.fromBytes(state) : Serializer.gameFromJson(rs.getString("game"));
         return new GameData(id, whiteUsername, blackUsername, gameName, game);
     }
 
+    // Only the column of the configured format is filled; the other is cleared so a row is never read stale
+    String json(ChessGame game) {
+        return (format == Format.JSON && game != null) ? Serializer.gameToJson(game) : null;
+    }
+
+    byte[] state(ChessGame game) {
+        return (format == Format.BINARY && game != null) ? GameCodec.toBytes(game) : null;
+    }
+
 }
@@ -1,6 +1,7 @@
 package dataaccess;
 
 import java.sql.*;
+import java.util.List;
 import java.util.Properties;
 
 import static java.sql.Types.NULL;
@@ -10,6 +11,8 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static Properties properties = new Properties();
+    private static volatile ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -47,15 +50,7 @@ public class DatabaseManager {
     static public int executeUpdate(String statement, Object... params) throws DataAccessException {
         try (Connection conn = getConnection()) {
             try (PreparedStatement ps = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
-                for (int i = 0; i < params.length; i++) {
-                    Object param = params[i];
-                    switch (param) {
-                        case String p -> ps.setString(i + 1, p);
-                        case Integer p -> ps.setInt(i + 1, p);
-                        case null -> ps.setNull(i + 1, NULL);
-                        default -> ps.setNull(i + 1, NULL);
-                    }
-                }
+                setParams(ps, params);
                 ps.executeUpdate();
 
                 ResultSet rs = ps.getGeneratedKeys();
@@ -71,9 +66,131 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Work done on one connection inside a transaction
+     */
+    @FunctionalInterface
+    interface Transaction<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs work on one connection in a single transaction, so either all of its statements take effect or none
+     * does. Under InnoDB's default REPEATABLE READ, every read in it also sees the same snapshot of the data.
+     *
+     * @return what the work returned
+     */
+    static <T> T executeTransaction(Transaction<T> work) throws DataAccessException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (DataAccessException | SQLException e) {
+            throw new DataAccessException(String.format("unable to update database: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs one statement once per parameter row as a single JDBC batch in one transaction, so either every row
+     * is written or none is
+     */
+    static public void executeBatch(String statement, List<Object[]> rows) throws DataAccessException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        executeTransaction(conn -> {
+            executeBatch(conn, statement, rows);
+            return null;
+        });
+    }
+
+    /**
+     * Runs one statement once per parameter row as a single JDBC batch on a connection the caller manages
+     */
+    static void executeBatch(Connection conn, String statement, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            for (Object[] params : rows) {
+                setParams(ps, params);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void setParams(PreparedStatement ps, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            switch (param) {
+                case String p -> ps.setString(i + 1, p);
+                case Integer p -> ps.setInt(i + 1, p);
+                case byte[] p -> ps.setBytes(i + 1, p);
+                case null -> ps.setNull(i + 1, NULL);
+                default -> ps.setNull(i + 1, NULL);
+            }
+        }
+    }
+
+    /**
+     * Adds a column to an existing table unless it is already there, so tables created before the column was
+     * added to their CREATE TABLE statement are brought up to date
+     */
+    static public void addColumnIfMissing(String table, String column, String definition) throws DataAccessException {
+        var query = "SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA=? AND TABLE_NAME=? AND COLUMN_NAME=?";
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(query)) {
+                ps.setString(1, databaseName);
+                ps.setString(2, table);
+                ps.setString(3, column);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return;
+                    }
+                }
+            }
+            try (var ps = conn.prepareStatement(String.format("ALTER TABLE %s ADD COLUMN `%s` %s", table, column, definition))) {
+                ps.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(String.format("Unable to add column %s to %s: %s", column, table, ex.getMessage()));
+        }
+    }
+
+    /**
+     * @return the value of a key in db.properties, or defaultValue if it is not set
+     */
+    static public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Closes every pooled connection, as when the server stops. The pool is replaced by an empty one, so later
+     * calls open new connections as they need them.
+     */
+    static public void closeConnections() {
+        replacePool(newPool(properties));
+    }
+
+    /**
+     * @return counters of the connection pool behind {@link #getConnection()}
+     */
+    static public ConnectionPool.Stats getPoolStats() {
+        return pool.getStats();
+    }
+
+    /**
+     * Borrows a connection to the database from the pool, with the catalog set to the
+     * database specified in db.properties. Connections should be short-lived, and you
+     * must close the connection when you are done with it, which returns it to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -84,15 +201,23 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool.borrow();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        try {
+            conn.setCatalog(databaseName);
+        } catch (SQLException ex) {
+            conn.close();
+            throw ex;
+        }
+        return conn;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -107,6 +232,7 @@ public class DatabaseManager {
     }
 
     private static void loadProperties(Properties props) {
+        properties = props;
         databaseName = props.getProperty("db.name");
         dbUsername = props.getProperty("db.user");
         dbPassword = props.getProperty("db.password");
@@ -114,5 +240,24 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+
+        replacePool(newPool(props));
+    }
+
+    private static ConnectionPool newPool(Properties props) {
+        return new ConnectionPool(DatabaseManager::openConnection,
+                Integer.parseInt(props.getProperty("db.pool.size", "10")),
+                Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000")),
+                Long.parseLong(props.getProperty("db.pool.borrowTimeoutMillis", "5000")),
+                Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2")));
+    }
+
+    // The old pool closes its idle connections now and the borrowed ones as they are returned
+    private static synchronized void replacePool(ConnectionPool newPool) {
+        ConnectionPool oldPool = pool;
+        pool = newPool;
+        if (oldPool != null) {
+            oldPool.close();
+        }
     }
 }
@@ -1,8 +1,14 @@
 package dataaccess;
 
+import chess.ChessMove;
 import model.GameData;
+import model.GameSummary;
 
-public interface GameDAO {
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+public interface GameDAO extends AutoCloseable {
 
     void clear() throws DataAccessException;
 
@@ -12,5 +18,56 @@ public interface GameDAO {
 
     void updateGame(GameData data) throws DataAccessException;
 
+    /**
+     * Saves several games at once. Implementations backed by a database should override this to write them in
+     * one batch.
+     */
+    default void updateGames(Collection<GameData> games) throws DataAccessException {
+        for(GameData data : games) {
+            updateGame(data);
+        }
+    }
+
+    /**
+     * Saves a game right after a move was made in it. Players and name must be unchanged since the game was
+     * read, so implementations that log moves can store just the move.
+     *
+     * @param data the game with the move already made
+     * @param move the move that was made
+     */
+    default void recordMove(GameData data, ChessMove move) throws DataAccessException {
+        updateGame(data);
+    }
+
     GameData[] listGames() throws DataAccessException;
+
+    /**
+     * Signals that a session has started following a game, so implementations that cache may keep it at hand
+     * until the matching {@link #release}
+     */
+    default void retain(int gameID) {
+    }
+
+    default void release(int gameID) {
+    }
+
+    /**
+     * Writes anything still queued and stops background work, as when the server stops. Does nothing by default.
+     */
+    @Override
+    default void close() throws DataAccessException {
+    }
+
+    /**
+     * Lists the games matching a query without their boards, in id order. Implementations backed by a database
+     * should override this to read only the summary columns.
+     */
+    default GameSummary[] listGames(GameQuery query) throws DataAccessException {
+        return Arrays.stream(listGames())
+                .map(GameSummary::of)
+                .filter(query::matches)
+                .sorted(Comparator.comparingInt(GameSummary::gameID))
+                .limit(query.limit())
+                .toArray(GameSummary[]::new);
+    }
 }
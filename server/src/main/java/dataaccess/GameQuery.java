@@ -0,0 +1,39 @@
+package dataaccess;
+
+import model.GameSummary;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * One page of a game listing, ordered by game id
+ *
+ * @param player        only games this user plays in, or null for all
+ * @param openSeatsOnly only games with a free white or black seat
+ * @param namePrefix    only games whose name starts with this, ignoring case and accents as the game table's
+ *                      collation does, or null for all
+ * @param afterGameID   only games with a higher id, the cursor of the page before; 0 for the first page
+ * @param limit         most games to return, or {@link #UNLIMITED}
+ */
+public record GameQuery(String player, boolean openSeatsOnly, String namePrefix, int afterGameID, int limit) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    public GameQuery withLimit(int limit) {
+        return new GameQuery(player, openSeatsOnly, namePrefix, afterGameID, limit);
+    }
+
+    public boolean matches(GameSummary game) {
+        return game.gameID() > afterGameID
+                && (player == null || player.equals(game.whiteUsername()) || player.equals(game.blackUsername()))
+                && (!openSeatsOnly || game.whiteUsername() == null || game.blackUsername() == null)
+                && (namePrefix == null || fold(game.gameName()).startsWith(fold(namePrefix)));
+    }
+
+    // Drops accents and case, like utf8mb4_0900_ai_ci comparisons
+    private static String fold(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,202 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+import model.GameData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores each move as its own row in game_moves instead of rewriting the whole game. The game row holds a
+ * snapshot, which is rewritten every snapshotInterval plies and on every {@link #updateGame}, and reading a game
+ * replays the moves made since its snapshot. Moves are kept after a snapshot, so game_moves is the full history.
+ * <p>
+ * A ply counts half-moves from the start of the game, derived from the fullmove number and side to move.
+ */
+public class MoveLogGameDAO extends DatabaseGameDAO {
+
+    // A game's snapshot and the moves logged after it, read together
+    private record LoggedGame(GameData snapshot, List<Integer> moves) {
+    }
+
+    private final int snapshotInterval;
+
+    /**
+     * Uses db.gameFormat for the snapshots and db.snapshotInterval (default 32) from db.properties
+     */
+    public MoveLogGameDAO() throws DataAccessException {
+        this(configuredFormat(), Integer.parseInt(DatabaseManager.getProperty("db.snapshotInterval", "32").trim()));
+    }
+
+    /**
+     * @param snapshotInterval plies between snapshots, which bounds how many moves a read replays
+     */
+    public MoveLogGameDAO(Format format, int snapshotInterval) throws DataAccessException {
+        super(format);
+        if(snapshotInterval < 1) {throw new IllegalArgumentException("Snapshot interval must be positive");}
+        this.snapshotInterval = snapshotInterval;
+        String[] createStatements = {
+                """
+            CREATE TABLE IF NOT EXISTS  game_moves (
+              `game_id` int NOT NULL,
+              `ply` int NOT NULL,
+              `move` int NOT NULL,
+              PRIMARY KEY (`game_id`, `ply`)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+            """
+        };
+        DatabaseManager.configureDatabase(createStatements);
+        DatabaseManager.addColumnIfMissing("game", "snapshot_ply", "int NOT NULL DEFAULT 0");
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        super.clear();
+        DatabaseManager.executeUpdate("TRUNCATE game_moves");
+    }
+
+    /**
+     * Reads the snapshot and the moves after it on one connection in one transaction, taking the moves from the
+     * snapshot_ply read with the snapshot, so a snapshot written in between cannot pair the old snapshot with
+     * the new ply
+     */
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        LoggedGame logged = DatabaseManager.executeTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM game WHERE id=?")) {
+                ps.setInt(1, gameID);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if(!rs.next()) {return null;}
+                    GameData snapshot = readGame(rs);
+                    int snapshotPly = rs.getInt("snapshot_ply");
+                    return new LoggedGame(snapshot, readMoves(conn, gameID, snapshotPly));
+                }
+            }
+        });
+        return (logged == null) ? null : replay(logged.snapshot(), logged.moves());
+    }
+
+    /**
+     * Reads every snapshot and the moves after each in one transaction, whose reads all see the same data
+     */
+    @Override
+    public GameData[] listGames() throws DataAccessException {
+        List<LoggedGame> logged = DatabaseManager.executeTransaction(conn -> {
+            Map<Integer, Integer> snapshotPlies = new HashMap<>();
+            List<GameData> snapshots = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM game");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    GameData snapshot = readGame(rs);
+                    snapshots.add(snapshot);
+                    snapshotPlies.put(snapshot.gameID(), rs.getInt("snapshot_ply"));
+                }
+            }
+
+            Map<Integer, List<Integer>> moves = new HashMap<>();
+            var statement = """
+                    SELECT m.game_id, m.ply, m.move FROM game_moves m JOIN game g ON g.id = m.game_id
+                    WHERE m.ply >= g.snapshot_ply ORDER BY m.game_id, m.ply""";
+            try (PreparedStatement ps = conn.prepareStatement(statement);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer snapshotPly = snapshotPlies.get(rs.getInt("game_id"));
+                    if(snapshotPly == null || rs.getInt("ply") < snapshotPly) {continue;}
+                    moves.computeIfAbsent(rs.getInt("game_id"), id -> new ArrayList<>()).add(rs.getInt("move"));
+                }
+            }
+
+            List<LoggedGame> games = new ArrayList<>();
+            for(GameData snapshot : snapshots) {games.add(new LoggedGame(snapshot, moves.get(snapshot.gameID())));}
+            return games;
+        });
+
+        GameData[] games = new GameData[logged.size()];
+        for(int i = 0; i < games.length; i++){
+            games[i] = replay(logged.get(i).snapshot(), logged.get(i).moves());
+        }
+        return games;
+    }
+
+    /**
+     * Writes a snapshot of the game and drops any logged moves at or past its ply, which it replaces
+     */
+    @Override
+    public void updateGame(GameData data) throws DataAccessException {
+        updateGames(List.of(data));
+    }
+
+    /**
+     * Writes every snapshot, its ply and the removal of the moves it replaces in one transaction, so a game's
+     * snapshot and snapshot_ply never disagree and replaying cannot apply a move twice
+     */
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        List<Object[]> snapshots = new ArrayList<>();
+        List<Object[]> replaced = new ArrayList<>();
+        for(GameData data : games) {
+            Integer ply = (data.game() == null) ? null : ply(data.game());
+            snapshots.add(new Object[]{data.gameName(), data.whiteUsername(), data.blackUsername(),
+                    json(data.game()), state(data.game()), ply, data.gameID()});
+            if(ply != null) {replaced.add(new Object[]{data.gameID(), ply});}
+        }
+        DatabaseManager.executeTransaction(conn -> {
+            DatabaseManager.executeBatch(conn, """
+                    UPDATE game SET name = ?, whiteUsername=?, blackUsername=?, game=?, state=?,
+                    snapshot_ply = COALESCE(?, snapshot_ply) WHERE id = ?""", snapshots);
+            DatabaseManager.executeBatch(conn, "DELETE FROM game_moves WHERE game_id = ? AND ply >= ?", replaced);
+            return null;
+        });
+    }
+
+    @Override
+    public void recordMove(GameData data, ChessMove move) throws DataAccessException {
+        int ply = ply(data.game()) - 1;
+        DatabaseManager.executeUpdate("INSERT INTO game_moves (game_id, ply, move) VALUES (?, ?, ?)",
+                data.gameID(), ply, Move.encode(move));
+        if((ply + 1) % snapshotInterval == 0) {updateGame(data);}
+    }
+
+    private static int ply(ChessGame game) {
+        return (game.getFullmoveNumber() - 1) * 2 + (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0);
+    }
+
+    private static GameData replay(GameData snapshot, List<Integer> moves) throws DataAccessException {
+        if(moves == null || snapshot.game() == null) {return snapshot;}
+        ChessGame game = snapshot.game();
+        try {
+            for(int move : moves) {game.makeMove(Move.toChessMove(move));}
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException(String.format("Unable to replay game %d: %s", snapshot.gameID(), e.getMessage()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads the moves of a game from a ply on, on the caller's connection
+     */
+    List<Integer> readMoves(Connection conn, int gameID, int fromPly) throws SQLException {
+        List<Integer> moves = new ArrayList<>();
+        var statement = "SELECT move FROM game_moves WHERE game_id = ? AND ply >= ? ORDER BY ply";
+        try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            ps.setInt(1, gameID);
+            ps.setInt(2, fromPly);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    moves.add(rs.getInt("move"));
+                }
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,209 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.GameSummary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues game updates in front of another GameDAO and writes them in batches through
+ * {@link GameDAO#updateGames}, keeping only the latest state of each game. The queue is flushed every flush
+ * interval, which bounds how much a crash can lose, and as soon as it holds maxPending games.
+ * <p>
+ * Reads of a queued game see the queued state, including while it is being written, and listings flush first
+ * so they never miss a queued change. Moves are queued like any other update, so a {@link MoveLogGameDAO}
+ * underneath stores them as snapshots.
+ * Call {@link #close()} on shutdown to write what is still queued, or {@link #closeOnShutdown()} to have the
+ * JVM do it. A background write that fails stays queued and is tried again at the next interval.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+
+    private final GameDAO delegate;
+    private final int maxPending;
+    // Latest queued state per game, in the order games were first queued; guarded by this
+    private final Map<Integer, GameData> pending = new LinkedHashMap<>();
+    // The batch being written, read until it commits so a read never falls back to the older row; guarded by this
+    private final Map<Integer, GameData> inFlight = new HashMap<>();
+    // Held while writing, so batches reach the database in the order they were taken from the queue
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+    // Guarded by this; null unless closeOnShutdown registered it and close has not removed it
+    private Thread shutdownHook;
+
+    public WriteBehindGameDAO(GameDAO delegate, long flushIntervalMillis, int maxPending) {
+        if(maxPending < 1) {throw new IllegalArgumentException("maxPending must be positive");}
+        this.delegate = delegate;
+        this.maxPending = maxPending;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushInBackground, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        synchronized (flushLock) {
+            synchronized (this) {
+                pending.clear();
+                inFlight.clear();
+            }
+            delegate.clear();
+        }
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        return delegate.createGame(gameName);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        synchronized (this) {
+            GameData queued = pending.get(gameID);
+            if(queued == null) {queued = inFlight.get(gameID);}
+            if(queued != null) {return copy(queued);}
+        }
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public void updateGame(GameData data) throws DataAccessException {
+        boolean full;
+        synchronized (this) {
+            pending.put(data.gameID(), copy(data));
+            full = pending.size() >= maxPending;
+        }
+        if(full) {flush();}
+    }
+
+    @Override
+    public void recordMove(GameData data, ChessMove move) throws DataAccessException {
+        updateGame(data);
+    }
+
+    @Override
+    public GameData[] listGames() throws DataAccessException {
+        flush();
+        return delegate.listGames();
+    }
+
+    @Override
+    public GameSummary[] listGames(GameQuery query) throws DataAccessException {
+        flush();
+        return delegate.listGames(query);
+    }
+
+    @Override
+    public void retain(int gameID) {
+        delegate.retain(gameID);
+    }
+
+    @Override
+    public void release(int gameID) {
+        delegate.release(gameID);
+    }
+
+    /**
+     * Writes every queued game in one batch. Games that fail to write stay queued unless a newer state of
+     * them was queued in the meantime.
+     */
+    public void flush() throws DataAccessException {
+        synchronized (flushLock) {
+            List<GameData> batch;
+            synchronized (this) {
+                if(pending.isEmpty()) {return;}
+                batch = new ArrayList<>(pending.values());
+                inFlight.putAll(pending);
+                pending.clear();
+            }
+            try {
+                delegate.updateGames(batch);
+            } catch (DataAccessException | RuntimeException e) {
+                synchronized (this) {
+                    for(GameData data : batch) {pending.putIfAbsent(data.gameID(), data);}
+                    inFlight.clear();
+                }
+                throw e;
+            }
+            synchronized (this) {
+                inFlight.clear();
+            }
+        }
+    }
+
+    /**
+     * @return number of games waiting to be written or being written
+     */
+    public synchronized int pendingGames() {
+        Set<Integer> games = new HashSet<>(pending.keySet());
+        games.addAll(inFlight.keySet());
+        return games.size();
+    }
+
+    /**
+     * Closes this DAO when the JVM shuts down if it has not been closed by then. Registers one hook however
+     * often it is called, and {@link #close()} removes it.
+     */
+    public synchronized void closeOnShutdown() {
+        if(shutdownHook != null || flusher.isShutdown()) {return;}
+        shutdownHook = new Thread(() -> {
+            try {
+                close();
+            } catch (DataAccessException e) {
+                throw new RuntimeException("unable to write queued games", e);
+            }
+        }, "game-write-behind-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Stops the background flush and writes whatever is still queued
+     *
+     * @throws DataAccessException if the queued games could not be written; they stay queued
+     */
+    @Override
+    public void close() throws DataAccessException {
+        flusher.shutdown();
+        removeShutdownHook();
+        flush();
+    }
+
+    private synchronized void removeShutdownHook() {
+        if(shutdownHook == null) {return;}
+        if(Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down, so the hook runs anyway and finds the queue written
+            }
+        }
+        shutdownHook = null;
+    }
+
+    // Failed games stay queued for the next interval, and close() reports them if they still fail then
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException ignored) {
+        }
+    }
+
+    // Queued games are copied in and out, so the flush thread never serializes a game a caller is changing
+    private static GameData copy(GameData data) {
+        ChessGame game = (data.game() == null) ? null : new ChessGame(data.game());
+        return new GameData(data.gameID(), data.whiteUsername(), data.blackUsername(), data.gameName(), game);
+    }
+}
@@ -1,7 +1,7 @@
 package server;
 
-import com.google.gson.Gson;
 import org.eclipse.jetty.websocket.api.Session;
+import serialization.Serializer;
 import websocket.messages.NotificationMessage;
 import websocket.messages.ServerMessage;
 
@@ -20,7 +20,7 @@ public class ConnectionManager {
     }
 
     public void broadcast(Session excludeSession, ServerMessage notification) throws IOException {
-        String msg = new Gson().toJson(notification);
+        String msg = Serializer.toJson(notification);
         for (Session c : connections.values()) {
             if (c.isOpen()) {
                 if (!c.equals(excludeSession)) {
@@ -1,6 +1,5 @@
 package server;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import dataaccess.AuthDAO;
 import dataaccess.DataAccessException;
@@ -8,58 +7,82 @@ import dataaccess.GameDAO;
 import dataaccess.UserDAO;
 import model.AuthData;
 import model.UserData;
+import serialization.Serializer;
 import service.*;
 
+import java.util.List;
+import java.util.Map;
+
 public class Handler {
 
     private final AuthService authService;
     private final GameService gameService;
     private final UserService userService;
-    private final Gson gson;
 
-    public Handler(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO){
+    public Handler(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO, GameLocks gameLocks){
         this.authService = new AuthService(authDAO);
-        this.gameService = new GameService(gameDAO, authDAO);
+        this.gameService = new GameService(gameDAO, authDAO, gameLocks);
         this.userService = new UserService(userDAO, authDAO);
-        gson = new Gson();
     }
 
     public String register(String body) throws JsonSyntaxException, AlreadyTakenException, InvalidRequest, DataAccessException {
-        UserData userData = gson.fromJson(body, UserData.class);
+        UserData userData = Serializer.fromJson(body, UserData.class);
         if(userData.username() == null || userData.password() == null || userData.email() == null){throw new InvalidRequest("Missing field");}
         LoginResult loginResult = userService.register(userData);
 
-        return gson.toJson(loginResult);
+        return Serializer.toJson(loginResult);
     }
 
     public String login(String body) throws JsonSyntaxException, UnauthorizedException, InvalidRequest, DataAccessException {
-        LoginRequest loginRequest = gson.fromJson(body, LoginRequest.class);
+        LoginRequest loginRequest = Serializer.fromJson(body, LoginRequest.class);
         if(loginRequest.username() == null || loginRequest.password() == null){throw new InvalidRequest("Missing field");}
         LoginResult loginResult = userService.login(loginRequest);
 
-        return gson.toJson(loginResult);
+        return Serializer.toJson(loginResult);
     }
 
     public void logout(String authToken) throws UnauthorizedException, DataAccessException {
         userService.logout(authToken);
     }
 
-    public String listGames(String authToken) throws UnauthorizedException, DataAccessException {
-        ListGamesResult gameList = gameService.listGames(authToken);
+    /**
+     * @param params query parameters: mine and open (true/false), prefix, cursor and limit, all optional
+     */
+    public String listGames(String authToken, Map<String, List<String>> params) throws UnauthorizedException, InvalidRequest, DataAccessException {
+        Integer cursor = intParam(params, "cursor");
+        Integer limit = intParam(params, "limit");
+        if(limit != null && limit < 1){throw new InvalidRequest("Limit must be positive");}
+        ListGamesRequest request = new ListGamesRequest(Boolean.parseBoolean(param(params, "mine")),
+                Boolean.parseBoolean(param(params, "open")), param(params, "prefix"), cursor, limit);
+        ListGamesResult gameList = gameService.listGames(authToken, request);
+
+        return Serializer.toJson(gameList);
+    }
+
+    private static String param(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return (values == null || values.isEmpty()) ? null : values.getFirst();
+    }
 
-        return gson.toJson(gameList);
+    private static Integer intParam(Map<String, List<String>> params, String name) throws InvalidRequest {
+        String value = param(params, name);
+        try {
+            return (value == null) ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequest("Bad " + name + ": " + value, e);
+        }
     }
 
     public String createGame(String authToken, String body) throws UnauthorizedException, InvalidRequest, DataAccessException {
-        String gameName = gson.fromJson(body, CreateGameRequest.class).gameName();
+        String gameName = Serializer.fromJson(body, CreateGameRequest.class).gameName();
         if(gameName == null){throw new InvalidRequest("No game name provided");}
         CreateGameResult gameID = gameService.createGame(authToken, gameName);
 
-        return gson.toJson(gameID);
+        return Serializer.toJson(gameID);
     }
 
     public void joinGame(String authToken, String body) throws UnauthorizedException, DataAccessException, AlreadyTakenException, InvalidRequest {
-        JoinGameRequest joinRequest = gson.fromJson(body, JoinGameRequest.class);
+        JoinGameRequest joinRequest = Serializer.fromJson(body, JoinGameRequest.class);
         if(joinRequest.gameID() == 0 || joinRequest.playerColor() == null){throw new InvalidRequest("Missing fields");}
         gameService.joinGame(authToken, joinRequest);
     }
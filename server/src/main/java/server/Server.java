@@ -1,11 +1,12 @@
 package server;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import dataaccess.*;
 import io.javalin.*;
 import io.javalin.http.Context;
+import serialization.Serializer;
 import service.AlreadyTakenException;
+import service.GameLocks;
 import service.InvalidRequest;
 import service.UnauthorizedException;
 
@@ -16,12 +17,18 @@ public class Server {
     private final Javalin javalin;
     private WebsocketRequestHandler wsHandler;
     private Handler handler;
+    private GameDAO gameDAO;
 
     public Server(){
         javalin = Javalin.create(config -> config.staticFiles.add("web"));
         try {
-            wsHandler = new WebsocketRequestHandler();
-            handler = new Handler(new DatabaseAuthDAO(), new DatabaseGameDAO(), new DatabaseUserDAO());
+            // One instance of each DAO and of the game locks, so the websocket and HTTP handlers see the same
+            // cached games and never change one at the same time
+            AuthDAO authDAO = DatabaseAuthDAO.fromProperties();
+            gameDAO = DatabaseGameDAO.fromProperties();
+            GameLocks gameLocks = new GameLocks();
+            wsHandler = new WebsocketRequestHandler(gameDAO, authDAO, gameLocks);
+            handler = new Handler(authDAO, gameDAO, new DatabaseUserDAO(), gameLocks);
         } catch (DataAccessException e) {
             System.exit(1);
         }
@@ -68,8 +75,8 @@ public class Server {
         ctx.status(200);
     }
 
-    private void listGames(Context ctx) throws UnauthorizedException, DataAccessException {
-        String body = handler.listGames(ctx.header("Authorization"));
+    private void listGames(Context ctx) throws UnauthorizedException, InvalidRequest, DataAccessException {
+        String body = handler.listGames(ctx.header("Authorization"), ctx.queryParamMap());
         ctx.status(200);
         ctx.json(body);
     }
@@ -91,36 +98,44 @@ public class Server {
     }
 
     private void badRequest(Exception e, Context ctx) {
-        var body = new Gson().toJson(Map.of("message", "Error: bad request"));
+        var body = Serializer.toJson(Map.of("message", "Error: bad request"));
         ctx.status(400);
         ctx.json(body);
     }
 
     private void unauthorized(Exception e, Context ctx) {
-        var body = new Gson().toJson(Map.of("message", "Error: unauthorized"));
+        var body = Serializer.toJson(Map.of("message", "Error: unauthorized"));
         ctx.status(401);
         ctx.json(body);
     }
 
     private void alreadyTaken(Exception e, Context ctx) {
-        var body = new Gson().toJson(Map.of("message", "Error: already taken"));
+        var body = Serializer.toJson(Map.of("message", "Error: already taken"));
         ctx.status(403);
         ctx.json(body);
     }
 
     private void dataAccess(Exception e, Context ctx) {
-        var body = new Gson().toJson(Map.of("message", "Error: Data access internal error"));
+        var body = Serializer.toJson(Map.of("message", "Error: Data access internal error"));
         ctx.status(500);
         ctx.json(body);
     }
 
     private void internalError(Exception e, Context ctx) {
-        var body = new Gson().toJson(Map.of("message", String.format("Error: %s", e.getMessage())));
+        var body = Serializer.toJson(Map.of("message", String.format("Error: %s", e.getMessage())));
         ctx.status(500);
         ctx.json(body);
     }
 
     public void stop() {
         javalin.stop();
+        // Queued game writes go out before the connections they need are closed
+        try {
+            if(gameDAO != null) {gameDAO.close();}
+        } catch (DataAccessException e) {
+            throw new RuntimeException("unable to write queued games", e);
+        } finally {
+            DatabaseManager.closeConnections();
+        }
     }
 }
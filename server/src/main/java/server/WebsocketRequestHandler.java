@@ -3,13 +3,16 @@ package server;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPiece;
+import chess.GameStatus;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
 import dataaccess.*;
 import io.javalin.websocket.*;
 import model.GameData;
+import org.eclipse.jetty.websocket.api.Session;
 import org.jetbrains.annotations.NotNull;
+import serialization.Serializer;
 import service.AuthService;
+import service.GameLocks;
 import service.GameService;
 import service.UnauthorizedException;
 import websocket.commands.MakeMoveCommand;
@@ -25,15 +28,21 @@ import java.util.concurrent.ConcurrentHashMap;
 public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandler, WsCloseHandler {
 
     private final ConcurrentHashMap<Integer, ConnectionManager> clients = new ConcurrentHashMap<>();
-    private final Gson gson = new Gson();
-    private final GameDAO gameDAO = new DatabaseGameDAO();
-    private final AuthDAO authDAO = new DatabaseAuthDAO();
-
-
-    private final GameService gameService = new GameService(gameDAO, authDAO);
-    private final AuthService authService = new AuthService(authDAO);
-
-    public WebsocketRequestHandler() throws DataAccessException {
+    // The game each connected session follows, so a session that closes without leaving is still released
+    private final ConcurrentHashMap<Session, Integer> sessionGames = new ConcurrentHashMap<>();
+    // Commands on the same game run one at a time, and not alongside an HTTP join, since they share the game's
+    // cached state
+    private final GameLocks gameLocks;
+    private final GameDAO gameDAO;
+
+    private final GameService gameService;
+    private final AuthService authService;
+
+    public WebsocketRequestHandler(GameDAO gameDAO, AuthDAO authDAO, GameLocks gameLocks) {
+        this.gameDAO = gameDAO;
+        this.gameLocks = gameLocks;
+        this.gameService = new GameService(gameDAO, authDAO, gameLocks);
+        this.authService = new AuthService(authDAO);
     }
 
     @Override
@@ -46,37 +55,44 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
     public void handleMessage(@NotNull WsMessageContext ctx) {
         try {
 
-            UserGameCommand command = new Gson().fromJson(ctx.message(), UserGameCommand.class);
-            switch (command.getCommandType()) {
-                case UserGameCommand.CommandType.CONNECT -> connect(ctx);
-                case UserGameCommand.CommandType.MAKE_MOVE -> makeMove(ctx);
-                case UserGameCommand.CommandType.LEAVE -> leave(ctx);
-                case UserGameCommand.CommandType.RESIGN -> resign(ctx);
-                default -> throw new IllegalStateException("Unexpected value: " + command.getCommandType());
+            UserGameCommand command = Serializer.fromJson(ctx.message(), UserGameCommand.class);
+            synchronized (gameLocks.forGame(command.getGameID())) {
+                switch (command.getCommandType()) {
+                    case UserGameCommand.CommandType.CONNECT -> connect(ctx);
+                    case UserGameCommand.CommandType.MAKE_MOVE -> makeMove(ctx);
+                    case UserGameCommand.CommandType.LEAVE -> leave(ctx);
+                    case UserGameCommand.CommandType.RESIGN -> resign(ctx);
+                    default -> throw new IllegalStateException("Unexpected value: " + command.getCommandType());
+                }
             }
         } catch (InvalidMoveException e){
-            ctx.send(gson.toJson(new ErrorMessage(ServerMessage.ServerMessageType.ERROR, e.getMessage())));
+            ctx.send(Serializer.toJson(new ErrorMessage(ServerMessage.ServerMessageType.ERROR, e.getMessage())));
         } catch (UnauthorizedException e){
-            ctx.send(gson.toJson(new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "UNAUTHORIZED")));
+            ctx.send(Serializer.toJson(new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "UNAUTHORIZED")));
         } catch (Exception e){
-            ctx.send(gson.toJson(new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "INTERNAL ERROR")));
+            ctx.send(Serializer.toJson(new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "INTERNAL ERROR")));
         }
 
     }
 
     @Override
     public void handleClose(@NotNull WsCloseContext ctx) {
+        Integer gameID = sessionGames.remove(ctx.session);
+        if(gameID != null){
+            clients.get(gameID).remove(ctx.session);
+            gameDAO.release(gameID);
+        }
         System.out.println("Websocket closed");
     }
 
     public void connect(WsMessageContext root) throws IOException, UnauthorizedException, DataAccessException {
-        UserGameCommand command = new Gson().fromJson(root.message(), UserGameCommand.class);
+        UserGameCommand command = Serializer.fromJson(root.message(), UserGameCommand.class);
         Integer gameID = command.getGameID();
-        GameData gameData = getGameData(command.getAuthToken(), gameID);
         String username = getUsername(command.getAuthToken());
+        GameData gameData = getGameData(gameID);
 
         // Send LOAD_GAME to root
-        root.send(gson.toJson(new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME,
+        root.send(Serializer.toJson(new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME,
                 gameData)));
 
         // Send Notification to all other clients saying someone joined as a player (with color) or observer
@@ -84,6 +100,14 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
             clients.put(gameID, new ConnectionManager());
         }
         clients.get(gameID).add(root.session);
+        Integer previousGameID = sessionGames.put(root.session, gameID);
+        if(!gameID.equals(previousGameID)){
+            gameDAO.retain(gameID);
+            if(previousGameID != null){
+                clients.get(previousGameID).remove(root.session);
+                gameDAO.release(previousGameID);
+            }
+        }
 
         String message;
         if(username.equals(gameData.whiteUsername())) {
@@ -102,11 +126,11 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
 
     public void makeMove(WsMessageContext root) throws
             IOException, UnauthorizedException, DataAccessException, InvalidMoveException {
-        MakeMoveCommand command = new Gson().fromJson(root.message(), MakeMoveCommand.class);
+        MakeMoveCommand command = Serializer.fromJson(root.message(), MakeMoveCommand.class);
         Integer gameID = command.getGameID();
         ChessMove move = command.getMove();
-        GameData gameData = getGameData(command.getAuthToken(), gameID);
         String username = getUsername(command.getAuthToken());
+        GameData gameData = getGameData(gameID);
 
         // validate move
         if(gameData.game().getGameOver()){
@@ -123,7 +147,7 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
 
         // update game
         gameData.game().makeMove(move);
-        gameDAO.updateGame(gameData);
+        gameDAO.recordMove(gameData, move);
 
         ChessGame game = gameData.game();
 
@@ -147,7 +171,8 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
         // send Notification to all clients if check, checkmate, or stalemate occurs
         String oppUsername = (game.getTeamTurn() == ChessGame.TeamColor.WHITE
                 ? gameData.whiteUsername() : gameData.blackUsername());
-        if(game.isInCheckmate(game.getTeamTurn())){
+        GameStatus.State state = game.getStatus().state();
+        if(state == GameStatus.State.CHECKMATE){
             clients.get(gameID).broadcast(null,
                     new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION,
                                     oppUsername
@@ -155,11 +180,11 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
                                     + username
                                     + " wins!"));
         }
-        else if(game.isInStalemate(game.getTeamTurn())){
+        else if(state == GameStatus.State.STALEMATE){
             clients.get(gameID).broadcast(null,
                     new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, "Stalemate!"));
         }
-        else if(game.isInCheck(game.getTeamTurn())){
+        else if(state == GameStatus.State.CHECK){
             clients.get(gameID).broadcast(null,
                     new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION,
                             oppUsername + " is in check."));
@@ -167,10 +192,10 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
     }
 
     public void leave(WsMessageContext root) throws IOException, UnauthorizedException, DataAccessException {
-        UserGameCommand command = new Gson().fromJson(root.message(), UserGameCommand.class);
+        UserGameCommand command = Serializer.fromJson(root.message(), UserGameCommand.class);
         Integer gameID = command.getGameID();
-        GameData gameData = getGameData(command.getAuthToken(), gameID);
         String username = getUsername(command.getAuthToken());
+        GameData gameData = getGameData(gameID);
 
         // Update game
         if(username.equals(gameData.whiteUsername())){
@@ -188,13 +213,16 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
                         username + " has left the game."));
 
         clients.get(gameID).remove(root.session);
+        if(sessionGames.remove(root.session, gameID)){
+            gameDAO.release(gameID);
+        }
     }
 
     public void resign(WsMessageContext root) throws IOException, UnauthorizedException, DataAccessException, InvalidMoveException {
-        UserGameCommand command = new Gson().fromJson(root.message(), UserGameCommand.class);
+        UserGameCommand command = Serializer.fromJson(root.message(), UserGameCommand.class);
         Integer gameID = command.getGameID();
-        GameData gameData = getGameData(command.getAuthToken(), gameID);
         String username = getUsername(command.getAuthToken());
+        GameData gameData = getGameData(gameID);
 
         if(gameData.game().getGameOver()){
             throw new InvalidMoveException("Game is already over!");
@@ -215,13 +243,9 @@ public class WebsocketRequestHandler implements WsConnectHandler, WsMessageHandl
 
     }
 
-    public GameData getGameData(String authToken, int gameID) throws UnauthorizedException, DataAccessException {
-        for(GameData gameData: gameService.listGames(authToken).games()){
-            if(gameData.gameID() == gameID){
-                return gameData;
-            }
-        }
-        throw new DataAccessException("Joining nonexistent game");
+    // Only called after getUsername, which has already validated the command's auth token
+    public GameData getGameData(int gameID) throws DataAccessException {
+        return gameService.getGame(gameID);
     }
 
     public String getUsername(String authToken) throws UnauthorizedException, DataAccessException {
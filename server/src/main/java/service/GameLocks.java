@@ -0,0 +1,30 @@
+package service;
+
+/**
+ * A fixed set of locks shared by everything that changes games, so changes to the same game run one at a time
+ * whether they come from HTTP or a websocket. Games hash onto the locks, so unrelated games sometimes share
+ * one, but the number of locks never grows with the game ids clients send.
+ */
+public class GameLocks {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Object[] locks;
+
+    public GameLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public GameLocks(int stripes) {
+        if(stripes < 1) {throw new IllegalArgumentException("Lock count must be positive");}
+        locks = new Object[stripes];
+        for(int i = 0; i < stripes; i++) {locks[i] = new Object();}
+    }
+
+    /**
+     * @return the lock to hold while reading and changing a game
+     */
+    public Object forGame(int gameID) {
+        return locks[Math.floorMod(gameID, locks.length)];
+    }
+}
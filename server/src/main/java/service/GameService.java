@@ -4,16 +4,29 @@ import chess.ChessGame;
 import dataaccess.AuthDAO;
 import dataaccess.DataAccessException;
 import dataaccess.GameDAO;
+import dataaccess.GameQuery;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
+
+import java.util.Arrays;
 
 public class GameService {
     private final GameDAO gameDAO;
     private final AuthService authService;
+    private final GameLocks gameLocks;
 
     public GameService(GameDAO gameDAO, AuthDAO authDAO){
+        this(gameDAO, authDAO, new GameLocks());
+    }
+
+    /**
+     * @param gameLocks locks shared with everything else that changes these games
+     */
+    public GameService(GameDAO gameDAO, AuthDAO authDAO, GameLocks gameLocks){
         this.gameDAO = gameDAO;
         this.authService = new AuthService(authDAO);
+        this.gameLocks = gameLocks;
     }
 
     public void clear() throws DataAccessException {
@@ -31,29 +44,76 @@ public class GameService {
     public void joinGame(String authToken, JoinGameRequest joinRequest) throws UnauthorizedException, DataAccessException, AlreadyTakenException {
         AuthData authData = authService.validateAuth(authToken);
 
-        GameData gameData = gameDAO.getGame(joinRequest.gameID());
+        // Held across the read and the write, so a join cannot overwrite a move made in between
+        synchronized (gameLocks.forGame(joinRequest.gameID())) {
+            GameData gameData = gameDAO.getGame(joinRequest.gameID());
 
-        if(gameData == null){throw new DataAccessException("Game does not exist");}
-        if(joinRequest.playerColor() == ChessGame.TeamColor.WHITE && gameData.whiteUsername() != null){
-            throw new AlreadyTakenException("White player already in game");
-        }
-        if(joinRequest.playerColor() == ChessGame.TeamColor.BLACK && gameData.blackUsername() != null){
-            throw new AlreadyTakenException("Black player already in game");
-        }
+            if(gameData == null){throw new DataAccessException("Game does not exist");}
+            if(joinRequest.playerColor() == ChessGame.TeamColor.WHITE && gameData.whiteUsername() != null){
+                throw new AlreadyTakenException("White player already in game");
+            }
+            if(joinRequest.playerColor() == ChessGame.TeamColor.BLACK && gameData.blackUsername() != null){
+                throw new AlreadyTakenException("Black player already in game");
+            }
 
-        if(joinRequest.playerColor() == ChessGame.TeamColor.WHITE){
-            gameDAO.updateGame(new GameData(joinRequest.gameID(), authData.username(),
-                    gameData.blackUsername(), gameData.gameName(), gameData.game()));
-        }
-        else{
-            gameDAO.updateGame(new GameData(joinRequest.gameID(), gameData.whiteUsername(),
-                    authData.username(), gameData.gameName(), gameData.game()));
+            if(joinRequest.playerColor() == ChessGame.TeamColor.WHITE){
+                gameDAO.updateGame(new GameData(joinRequest.gameID(), authData.username(),
+                        gameData.blackUsername(), gameData.gameName(), gameData.game()));
+            }
+            else{
+                gameDAO.updateGame(new GameData(joinRequest.gameID(), gameData.whiteUsername(),
+                        authData.username(), gameData.gameName(), gameData.game()));
+            }
         }
     }
 
-    public ListGamesResult listGames(String authToken) throws UnauthorizedException, DataAccessException {
+    /**
+     * Reads one game by id, for callers that already know which game they want
+     *
+     * @throws DataAccessException if there is no game with that id
+     */
+    public GameData getGame(String authToken, int gameID) throws UnauthorizedException, DataAccessException {
         authService.validateAuth(authToken);
 
-        return new ListGamesResult(gameDAO.listGames());
+        return getGame(gameID);
+    }
+
+    /**
+     * Reads one game by id for a caller that has already validated the requester's auth token
+     *
+     * @throws DataAccessException if there is no game with that id
+     */
+    public GameData getGame(int gameID) throws DataAccessException {
+        GameData gameData = gameDAO.getGame(gameID);
+        if(gameData == null){throw new DataAccessException("Game does not exist");}
+        return gameData;
+    }
+
+    public ListGamesResult listGames(String authToken) throws UnauthorizedException, DataAccessException {
+        return listGames(authToken, ListGamesRequest.ALL_GAMES);
+    }
+
+    /**
+     * Lists games without their boards, one page at a time if the request gives a cursor or limit
+     */
+    public ListGamesResult listGames(String authToken, ListGamesRequest request) throws UnauthorizedException, DataAccessException {
+        AuthData authData = authService.validateAuth(authToken);
+
+        GameQuery query = new GameQuery(request.mine() ? authData.username() : null, request.openSeats(),
+                request.namePrefix(), (request.cursor() == null) ? 0 : request.cursor(), GameQuery.UNLIMITED);
+        if(request.cursor() == null && request.limit() == null){
+            return new ListGamesResult(gameDAO.listGames(query), null);
+        }
+
+        int limit = (request.limit() == null) ? GameQuery.DEFAULT_LIMIT : Math.min(request.limit(), GameQuery.MAX_LIMIT);
+        query = query.withLimit(limit + 1);
+
+        // One extra game is read to tell whether there is another page
+        GameSummary[] games = gameDAO.listGames(query);
+        if(games.length <= limit){
+            return new ListGamesResult(games, null);
+        }
+        games = Arrays.copyOf(games, limit);
+        return new ListGamesResult(games, games[limit - 1].gameID());
     }
 }
@@ -0,0 +1,16 @@
+package service;
+
+/**
+ * Filters and paging for a game listing. Paging is opt-in: without a cursor or limit every matching game is
+ * listed, and a cursor without a limit pages by {@link dataaccess.GameQuery#DEFAULT_LIMIT}.
+ *
+ * @param mine       only games the requesting user plays in
+ * @param openSeats  only games with a free seat
+ * @param namePrefix only games whose name starts with this
+ * @param cursor     nextCursor of the previous page
+ * @param limit      most games per page, capped at {@link dataaccess.GameQuery#MAX_LIMIT}
+ */
+public record ListGamesRequest(boolean mine, boolean openSeats, String namePrefix, Integer cursor, Integer limit) {
+
+    public static final ListGamesRequest ALL_GAMES = new ListGamesRequest(false, false, null, null, null);
+}
@@ -1,6 +1,9 @@
 package service;
 
-import model.GameData;
+import model.GameSummary;
 
-public record ListGamesResult(GameData[] games) {
+/**
+ * @param nextCursor cursor for the next page, or null if this is the last one
+ */
+public record ListGamesResult(GameSummary[] games, Integer nextCursor) {
 }
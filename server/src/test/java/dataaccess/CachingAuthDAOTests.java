@@ -0,0 +1,103 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingAuthDAOTests {
+
+    // Counts reads, to see which lookups reach the underlying DAO
+    private static class CountingAuthDAO extends MemoryAuthDAO {
+        int reads;
+
+        @Override
+        public AuthData getAuth(String authToken) {
+            reads++;
+            return super.getAuth(authToken);
+        }
+    }
+
+    private static final AuthData AUTH = new AuthData("token", "Player1");
+
+    private CountingAuthDAO delegate;
+    private CachingAuthDAO authDAO;
+
+    @BeforeEach
+    public void setup() throws DataAccessException {
+        delegate = new CountingAuthDAO();
+        authDAO = new CachingAuthDAO(delegate, 2, 60_000, 60_000);
+        authDAO.createAuth(AUTH);
+    }
+
+    @Test
+    @DisplayName("Created tokens are served from memory")
+    public void cached() throws DataAccessException {
+        assertEquals(AUTH, authDAO.getAuth("token"));
+        assertEquals(AUTH, authDAO.getAuth("token"));
+        assertEquals(0, delegate.reads);
+    }
+
+    @Test
+    @DisplayName("Unknown tokens are remembered")
+    public void negative() throws DataAccessException {
+        assertNull(authDAO.getAuth("guess"));
+        assertNull(authDAO.getAuth("guess"));
+        assertEquals(1, delegate.reads);
+    }
+
+    @Test
+    @DisplayName("Deleted tokens are no longer valid")
+    public void delete() throws DataAccessException {
+        authDAO.deleteAuth(AUTH);
+
+        assertNull(authDAO.getAuth("token"));
+        assertEquals(1, delegate.reads);
+    }
+
+    @Test
+    @DisplayName("A login replaces a remembered unknown token")
+    public void createAfterMiss() throws DataAccessException {
+        AuthData later = new AuthData("later", "Player2");
+        assertNull(authDAO.getAuth("later"));
+        authDAO.createAuth(later);
+
+        assertEquals(later, authDAO.getAuth("later"));
+    }
+
+    @Test
+    @DisplayName("Expired tokens are read again")
+    public void ttl() throws DataAccessException, InterruptedException {
+        authDAO = new CachingAuthDAO(delegate, 2, 1, 1);
+        authDAO.getAuth("token");
+        Thread.sleep(5);
+
+        assertEquals(AUTH, authDAO.getAuth("token"));
+        assertEquals(2, delegate.reads);
+    }
+
+    @Test
+    @DisplayName("The least recently used token is evicted")
+    public void lru() throws DataAccessException {
+        authDAO.createAuth(new AuthData("second", "Player2"));
+        authDAO.getAuth("token");
+        authDAO.createAuth(new AuthData("third", "Player3"));
+
+        assertEquals(2, authDAO.cachedTokens());
+        authDAO.getAuth("token");
+        assertEquals(0, delegate.reads);
+        authDAO.getAuth("second");
+        assertEquals(1, delegate.reads);
+    }
+
+    @Test
+    @DisplayName("Clear empties the cache")
+    public void clear() throws DataAccessException {
+        authDAO.clear();
+
+        assertEquals(0, authDAO.cachedTokens());
+        assertNull(authDAO.getAuth("token"));
+    }
+}
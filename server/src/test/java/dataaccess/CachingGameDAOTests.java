@@ -0,0 +1,148 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingGameDAOTests {
+
+    // Counts reads and can be made to fail writes, to see what reaches the underlying DAO
+    private static class CountingGameDAO extends MemoryGameDAO {
+        int reads;
+        boolean failWrites;
+
+        @Override
+        public GameData getGame(int gameID) {
+            reads++;
+            return super.getGame(gameID);
+        }
+
+        @Override
+        public void updateGame(GameData data) {
+            if(failWrites) {throw new IllegalStateException("write failed");}
+            super.updateGame(data);
+        }
+    }
+
+    private CountingGameDAO delegate;
+    private CachingGameDAO gameDAO;
+
+    @BeforeEach
+    public void setup() throws DataAccessException {
+        delegate = new CountingGameDAO();
+        gameDAO = new CachingGameDAO(delegate, 60_000);
+        gameDAO.createGame("TestGame");
+    }
+
+    @Test
+    @DisplayName("Retained games are read once")
+    public void cached() throws DataAccessException {
+        gameDAO.retain(1);
+        GameData first = gameDAO.getGame(1);
+        GameData second = gameDAO.getGame(1);
+
+        assertSame(first, second);
+        assertEquals(1, delegate.reads);
+        assertEquals(1, gameDAO.cachedGames());
+    }
+
+    @Test
+    @DisplayName("Games without sessions are not cached")
+    public void notRetained() throws DataAccessException {
+        gameDAO.getGame(1);
+        gameDAO.getGame(1);
+
+        assertEquals(2, delegate.reads);
+        assertEquals(0, gameDAO.cachedGames());
+    }
+
+    @Test
+    @DisplayName("Writes go through and replace the cached copy")
+    public void writeThrough() throws DataAccessException, InvalidMoveException {
+        gameDAO.retain(1);
+        GameData data = gameDAO.getGame(1);
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        data.game().makeMove(move);
+        gameDAO.recordMove(data, move);
+        GameData joined = new GameData(1, "Player1", null, "TestGame", data.game());
+        gameDAO.updateGame(joined);
+
+        assertSame(joined, gameDAO.getGame(1));
+        assertEquals(1, delegate.reads);
+        assertEquals(joined, delegate.getGame(1));
+    }
+
+    @Test
+    @DisplayName("The last release evicts the game")
+    public void release() throws DataAccessException {
+        gameDAO.retain(1);
+        gameDAO.retain(1);
+        gameDAO.getGame(1);
+
+        gameDAO.release(1);
+        assertEquals(1, gameDAO.cachedGames());
+        gameDAO.release(1);
+        assertEquals(0, gameDAO.cachedGames());
+    }
+
+    @Test
+    @DisplayName("Idle games are read again")
+    public void idle() throws DataAccessException, InterruptedException {
+        gameDAO = new CachingGameDAO(delegate, 1);
+        gameDAO.retain(1);
+        gameDAO.getGame(1);
+        Thread.sleep(5);
+
+        gameDAO.getGame(1);
+        gameDAO.getGame(1);
+        assertEquals(2, delegate.reads);
+        assertEquals(1, gameDAO.cachedGames());
+    }
+
+    @Test
+    @DisplayName("Idle eviction keeps the session count")
+    public void idleKeepsSessions() throws DataAccessException, InterruptedException {
+        gameDAO = new CachingGameDAO(delegate, 1);
+        gameDAO.retain(1);
+        gameDAO.getGame(1);
+        Thread.sleep(5);
+        gameDAO.retain(1);
+
+        gameDAO.release(1);
+        gameDAO.getGame(1);
+        gameDAO.getGame(1);
+        assertEquals(1, gameDAO.cachedGames());
+        assertEquals(2, delegate.reads);
+        gameDAO.release(1);
+        assertEquals(0, gameDAO.cachedGames());
+    }
+
+    @Test
+    @DisplayName("Failed writes drop the cached copy")
+    public void failedWrite() throws DataAccessException {
+        gameDAO.retain(1);
+        gameDAO.getGame(1).game().setGameOver(true);
+        delegate.failWrites = true;
+
+        assertThrows(IllegalStateException.class, () -> gameDAO.updateGame(gameDAO.getGame(1)));
+        assertEquals(0, gameDAO.cachedGames());
+    }
+
+    @Test
+    @DisplayName("Clear empties the cache")
+    public void clear() throws DataAccessException {
+        gameDAO.retain(1);
+        gameDAO.getGame(1);
+        gameDAO.clear();
+
+        assertNull(gameDAO.getGame(1));
+        assertEquals(new ChessGame(), gameDAO.getGame(gameDAO.createGame("NewGame")).game());
+    }
+}
@@ -0,0 +1,175 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+
+    // State behind each fake physical connection the factory hands the pool
+    private static class FakeState {
+        volatile boolean closed;
+        boolean valid = true;
+        boolean autoCommit = true;
+        int rollbacks;
+    }
+
+    private final List<FakeState> opened = new ArrayList<>();
+
+    private Connection open() {
+        FakeState state = new FakeState();
+        opened.add(state);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        state.closed = true;
+                        yield null;
+                    }
+                    case "isClosed" -> state.closed;
+                    case "isValid" -> state.valid;
+                    case "getAutoCommit" -> state.autoCommit;
+                    case "setAutoCommit" -> {
+                        state.autoCommit = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "rollback" -> {
+                        state.rollbacks++;
+                        yield null;
+                    }
+                    case "getCatalog" -> "chess";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setup() {
+        opened.clear();
+        pool = new ConnectionPool(this::open, 2, 60_000, 50, 1);
+    }
+
+    @AfterEach
+    public void teardown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Closed connections are reused")
+    public void reuse() throws SQLException {
+        try (Connection conn = pool.borrow()) {
+            assertEquals("chess", conn.getCatalog());
+        }
+        try (Connection conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+
+        assertEquals(1, opened.size());
+        assertFalse(opened.getFirst().closed);
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+        assertEquals(2, stats.borrows());
+    }
+
+    @Test
+    @DisplayName("Borrowers time out once the pool is exhausted")
+    public void bounded() throws SQLException {
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+
+        assertThrows(SQLTransientConnectionException.class, () -> pool.borrow());
+        assertEquals(1, pool.getStats().timeouts());
+
+        second.close();
+        assertDoesNotThrow(() -> pool.borrow().close());
+        first.close();
+        assertEquals(2, opened.size());
+    }
+
+    @Test
+    @DisplayName("Returned wrappers cannot be used again")
+    public void returnedWrapper() throws SQLException {
+        Connection conn = pool.borrow();
+        conn.close();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::getCatalog);
+        assertEquals(0, pool.getStats().active());
+    }
+
+    @Test
+    @DisplayName("Invalid connections are replaced on borrow")
+    public void validation() throws SQLException {
+        pool.borrow().close();
+        opened.getFirst().valid = false;
+
+        pool.borrow().close();
+        assertEquals(2, opened.size());
+        assertTrue(opened.getFirst().closed);
+        assertEquals(1, pool.getStats().discarded());
+    }
+
+    @Test
+    @DisplayName("Idle connections are evicted")
+    public void idleEviction() throws SQLException, InterruptedException {
+        pool.close();
+        pool = new ConnectionPool(this::open, 2, 1, 50, 1);
+        pool.borrow().close();
+        Thread.sleep(5);
+
+        pool.borrow().close();
+        assertEquals(2, opened.size());
+        assertTrue(opened.getFirst().closed);
+    }
+
+    @Test
+    @DisplayName("Idle connections are evicted without another borrow")
+    public void backgroundEviction() throws SQLException, InterruptedException {
+        pool.close();
+        pool = new ConnectionPool(this::open, 2, 20, 50, 1);
+        pool.borrow().close();
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while(!opened.getFirst().closed && System.currentTimeMillis() < deadline){
+            Thread.sleep(5);
+        }
+        assertTrue(opened.getFirst().closed);
+        assertEquals(0, pool.getStats().idle());
+    }
+
+    @Test
+    @DisplayName("Open transactions are rolled back on return")
+    public void rollback() throws SQLException {
+        try (Connection conn = pool.borrow()) {
+            conn.setAutoCommit(false);
+        }
+
+        assertEquals(1, opened.getFirst().rollbacks);
+        assertTrue(opened.getFirst().autoCommit);
+    }
+
+    @Test
+    @DisplayName("Closing the pool closes idle connections")
+    public void close() throws SQLException {
+        Connection borrowed = pool.borrow();
+        pool.borrow().close();
+        pool.close();
+
+        assertTrue(opened.get(1).closed);
+        borrowed.close();
+        assertTrue(opened.getFirst().closed);
+        assertThrows(SQLException.class, () -> pool.borrow());
+    }
+}
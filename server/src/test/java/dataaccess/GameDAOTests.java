@@ -72,6 +72,19 @@ public class GameDAOTests {
         assertEquals(game, gameDAO.getGame(1).game());
     }
 
+    @Test
+    @DisplayName("Binary storage round trips and reads JSON rows")
+    public void binaryFormat() throws DataAccessException, InvalidMoveException {
+        GameDAO binaryDAO = new DatabaseGameDAO(DatabaseGameDAO.Format.BINARY);
+        assertEquals(new ChessGame(), binaryDAO.getGame(1).game());
+
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        binaryDAO.updateGame(new GameData(1, "Player1", "Player2", "TestGame", game));
+        assertEquals(game, binaryDAO.getGame(1).game());
+        assertEquals(new ChessPosition(3, 5), gameDAO.getGame(1).game().getBoard().getEnPassantTarget());
+    }
+
     @Test
     @DisplayName("Update game that doesn't exist")
     public void updateBadGame() throws DataAccessException {
@@ -87,6 +100,22 @@ public class GameDAOTests {
         assertEquals(1, games.length);
     }
 
+    @Test
+    @DisplayName("List Game Summaries")
+    public void listGameSummaries() throws DataAccessException {
+        gameDAO.createGame("Other_Game");
+        gameDAO.createGame("Test%Game");
+        gameDAO.updateGame(new GameData(2, "Player1", "Player2", "Other_Game", new ChessGame()));
+
+        assertEquals(2, gameDAO.listGames(new GameQuery(null, true, null, 0, 10)).length);
+        assertEquals(1, gameDAO.listGames(new GameQuery("Player2", false, null, 0, 10)).length);
+        assertEquals(1, gameDAO.listGames(new GameQuery(null, false, "Test%", 0, 10)).length);
+        assertEquals(3, gameDAO.listGames(new GameQuery(null, false, null, 1, 10))[1].gameID());
+        assertEquals(1, gameDAO.listGames(new GameQuery(null, false, null, 0, 1)).length);
+        assertEquals(3, gameDAO.listGames(new GameQuery(null, false, null, 0, GameQuery.UNLIMITED)).length);
+        assertEquals("Other_Game", gameDAO.listGames(new GameQuery(null, false, "óTHER", 0, 10))[0].gameName());
+    }
+
     @Test
     @DisplayName("Clear games")
     public void clear() throws DataAccessException {
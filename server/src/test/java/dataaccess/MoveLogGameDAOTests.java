@@ -0,0 +1,118 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveLogGameDAOTests {
+    private GameDAO gameDAO;
+
+    @BeforeEach
+    public void setup() throws DataAccessException {
+        gameDAO = new MoveLogGameDAO(DatabaseGameDAO.Format.BINARY, 3);
+        gameDAO.clear();
+        gameDAO.createGame("TestGame");
+    }
+
+    private GameData play(GameData data, int startRow, int startCol, int endRow, int endCol)
+            throws InvalidMoveException, DataAccessException {
+        ChessMove move = new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+        data.game().makeMove(move);
+        gameDAO.recordMove(data, move);
+        return data;
+    }
+
+    @Test
+    @DisplayName("Recorded moves are replayed")
+    public void replay() throws DataAccessException, InvalidMoveException {
+        GameData data = gameDAO.getGame(1);
+        play(data, 2, 5, 4, 5);
+        play(data, 7, 5, 5, 5);
+
+        assertEquals(data.game(), gameDAO.getGame(1).game());
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(1).game().getTeamTurn());
+    }
+
+    @Test
+    @DisplayName("Snapshots and later moves combine")
+    public void snapshot() throws DataAccessException, InvalidMoveException {
+        GameData data = gameDAO.getGame(1);
+        play(data, 2, 5, 4, 5);
+        play(data, 7, 5, 5, 5);
+        play(data, 1, 7, 3, 6);
+        play(data, 8, 2, 6, 3);
+        play(data, 1, 6, 4, 3);
+
+        assertEquals(data.game(), gameDAO.getGame(1).game());
+        assertEquals(data.game(), gameDAO.listGames()[0].game());
+        assertEquals(2, new DatabaseGameDAO(DatabaseGameDAO.Format.BINARY).getGame(1).game().getFullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("Updates keep players and replace the log")
+    public void update() throws DataAccessException, InvalidMoveException {
+        GameData data = play(gameDAO.getGame(1), 2, 5, 4, 5);
+        gameDAO.updateGame(new GameData(1, "Player1", null, "TestGame", data.game()));
+
+        GameData read = gameDAO.getGame(1);
+        assertEquals("Player1", read.whiteUsername());
+        assertEquals(data.game(), read.game());
+    }
+
+    @Test
+    @DisplayName("Batched updates snapshot every game")
+    public void updateGames() throws DataAccessException, InvalidMoveException {
+        gameDAO.createGame("OtherGame");
+        GameData first = play(gameDAO.getGame(1), 2, 5, 4, 5);
+        GameData second = play(play(gameDAO.getGame(2), 2, 4, 4, 4), 7, 4, 5, 4);
+        gameDAO.updateGames(List.of(first, second));
+
+        assertEquals(first.game(), gameDAO.getGame(1).game());
+        assertEquals(second.game(), gameDAO.getGame(2).game());
+        assertEquals(second.game(), new DatabaseGameDAO(DatabaseGameDAO.Format.BINARY).getGame(2).game());
+    }
+
+    @Test
+    @DisplayName("A snapshot written between the two reads does not change the replay")
+    public void snapshotDuringRead() throws DataAccessException, InvalidMoveException {
+        GameData data = gameDAO.getGame(1);
+        play(data, 2, 5, 4, 5);
+        play(data, 7, 5, 5, 5);
+        MoveLogGameDAO writer = new MoveLogGameDAO(DatabaseGameDAO.Format.BINARY, 3);
+        MoveLogGameDAO reader = new MoveLogGameDAO(DatabaseGameDAO.Format.BINARY, 3) {
+            @Override
+            List<Integer> readMoves(Connection conn, int gameID, int fromPly) throws SQLException {
+                try {
+                    writer.updateGame(data);
+                } catch (DataAccessException e) {
+                    throw new SQLException(e);
+                }
+                return super.readMoves(conn, gameID, fromPly);
+            }
+        };
+
+        assertEquals(data.game(), reader.getGame(1).game());
+        assertEquals(data.game(), gameDAO.getGame(1).game());
+    }
+
+    @Test
+    @DisplayName("Clear games and moves")
+    public void clear() throws DataAccessException, InvalidMoveException {
+        play(gameDAO.getGame(1), 2, 5, 4, 5);
+        gameDAO.clear();
+        gameDAO.createGame("NewGame");
+
+        assertEquals(new ChessGame(), gameDAO.getGame(1).game());
+    }
+}
@@ -0,0 +1,219 @@
+package dataaccess;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindGameDAOTests {
+
+    // Records the size of each batch and can be made to fail or hold up writes, to see what reaches the
+    // underlying DAO
+    private static class BatchingGameDAO extends MemoryGameDAO {
+        final List<Integer> batches = new ArrayList<>();
+        volatile boolean failWrites;
+        CountDownLatch writing;
+        CountDownLatch finishWrite;
+
+        @Override
+        public void updateGames(Collection<GameData> games) throws DataAccessException {
+            if(finishWrite != null) {
+                writing.countDown();
+                try {
+                    finishWrite.await();
+                } catch (InterruptedException e) {
+                    throw new DataAccessException("interrupted");
+                }
+            }
+            synchronized (this) {
+                if(failWrites) {throw new DataAccessException("write failed");}
+                batches.add(games.size());
+                for(GameData data : games) {updateGame(data);}
+            }
+        }
+
+        @Override
+        public synchronized GameData getGame(int gameID) {
+            return super.getGame(gameID);
+        }
+    }
+
+    private BatchingGameDAO delegate;
+    private WriteBehindGameDAO gameDAO;
+
+    @BeforeEach
+    public void setup() throws DataAccessException {
+        delegate = new BatchingGameDAO();
+        gameDAO = new WriteBehindGameDAO(delegate, 60_000, 3);
+        gameDAO.createGame("Game1");
+        gameDAO.createGame("Game2");
+    }
+
+    @AfterEach
+    public void teardown() throws DataAccessException {
+        gameDAO.close();
+    }
+
+    @Test
+    @DisplayName("Updates to one game are coalesced")
+    public void coalesce() throws DataAccessException {
+        gameDAO.updateGame(new GameData(1, "Player1", null, "Game1", gameDAO.getGame(1).game()));
+        gameDAO.updateGame(new GameData(1, "Player1", "Player2", "Game1", gameDAO.getGame(1).game()));
+        assertEquals(1, gameDAO.pendingGames());
+        assertNull(delegate.getGame(1).whiteUsername());
+
+        gameDAO.flush();
+        assertEquals(List.of(1), delegate.batches);
+        assertEquals("Player2", delegate.getGame(1).blackUsername());
+        assertEquals(0, gameDAO.pendingGames());
+    }
+
+    @Test
+    @DisplayName("Reads see queued updates")
+    public void readQueued() throws DataAccessException, InvalidMoveException {
+        GameData data = gameDAO.getGame(1);
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        data.game().makeMove(move);
+        gameDAO.recordMove(data, move);
+
+        GameData queued = gameDAO.getGame(1);
+        assertEquals(data, queued);
+        assertNotSame(data.game(), queued.game());
+        assertTrue(delegate.batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Reads see games while they are being written")
+    public void readInFlight() throws DataAccessException, InterruptedException {
+        delegate.writing = new CountDownLatch(1);
+        delegate.finishWrite = new CountDownLatch(1);
+        gameDAO.updateGame(new GameData(1, "Player1", null, "Game1", delegate.getGame(1).game()));
+        Thread flush = new Thread(() -> assertDoesNotThrow(() -> gameDAO.flush()));
+        flush.start();
+        try {
+            assertTrue(delegate.writing.await(2, TimeUnit.SECONDS));
+
+            assertNull(delegate.getGame(1).whiteUsername());
+            assertEquals("Player1", gameDAO.getGame(1).whiteUsername());
+            assertEquals(1, gameDAO.pendingGames());
+        } finally {
+            delegate.finishWrite.countDown();
+            flush.join(2_000);
+        }
+        assertEquals("Player1", delegate.getGame(1).whiteUsername());
+        assertEquals(0, gameDAO.pendingGames());
+    }
+
+    @Test
+    @DisplayName("A full queue is written at once")
+    public void flushOnSize() throws DataAccessException {
+        int third = gameDAO.createGame("Game3");
+        for(int gameID : new int[]{1, 2, third}){
+            gameDAO.updateGame(new GameData(gameID, "Player1", null, "Game" + gameID, delegate.getGame(gameID).game()));
+        }
+
+        assertEquals(List.of(3), delegate.batches);
+        assertEquals(0, gameDAO.pendingGames());
+    }
+
+    @Test
+    @DisplayName("The queue is written every interval")
+    public void flushOnInterval() throws DataAccessException, InterruptedException {
+        gameDAO.close();
+        gameDAO = new WriteBehindGameDAO(delegate, 10, 100);
+        gameDAO.updateGame(new GameData(1, "Player1", null, "Game1", delegate.getGame(1).game()));
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while(gameDAO.pendingGames() > 0 && System.currentTimeMillis() < deadline){
+            Thread.sleep(5);
+        }
+        assertEquals(0, gameDAO.pendingGames());
+        assertEquals("Player1", delegate.getGame(1).whiteUsername());
+    }
+
+    @Test
+    @DisplayName("Listing writes the queue first")
+    public void listFlushes() throws DataAccessException {
+        gameDAO.updateGame(new GameData(2, null, "Player2", "Game2", delegate.getGame(2).game()));
+
+        GameData[] games = gameDAO.listGames();
+        assertEquals(2, games.length);
+        assertEquals(0, gameDAO.pendingGames());
+        assertEquals("Player2", gameDAO.listGames(new GameQuery(null, false, null, 0, 10))[1].blackUsername());
+    }
+
+    @Test
+    @DisplayName("Failed writes stay queued")
+    public void failedFlush() throws DataAccessException {
+        gameDAO.updateGame(new GameData(1, "Player1", null, "Game1", delegate.getGame(1).game()));
+        delegate.failWrites = true;
+
+        assertThrows(DataAccessException.class, () -> gameDAO.flush());
+        assertEquals(1, gameDAO.pendingGames());
+
+        delegate.failWrites = false;
+        gameDAO.flush();
+        assertEquals("Player1", delegate.getGame(1).whiteUsername());
+    }
+
+    @Test
+    @DisplayName("Failed background writes are tried again")
+    public void retryInBackground() throws DataAccessException, InterruptedException {
+        gameDAO.close();
+        gameDAO = new WriteBehindGameDAO(delegate, 10, 100);
+        delegate.failWrites = true;
+        gameDAO.updateGame(new GameData(1, "Player1", null, "Game1", delegate.getGame(1).game()));
+        Thread.sleep(50);
+        assertEquals(1, gameDAO.pendingGames());
+
+        delegate.failWrites = false;
+        long deadline = System.currentTimeMillis() + 2_000;
+        while(gameDAO.pendingGames() > 0 && System.currentTimeMillis() < deadline){
+            Thread.sleep(5);
+        }
+        assertEquals("Player1", delegate.getGame(1).whiteUsername());
+    }
+
+    @Test
+    @DisplayName("Closing reports games it could not write")
+    public void closeFails() throws DataAccessException {
+        gameDAO.updateGame(new GameData(1, "Player1", null, "Game1", delegate.getGame(1).game()));
+        delegate.failWrites = true;
+
+        assertThrows(DataAccessException.class, () -> gameDAO.close());
+        assertEquals(1, gameDAO.pendingGames());
+        delegate.failWrites = false;
+    }
+
+    @Test
+    @DisplayName("Closing a cache in front writes the queue")
+    public void closeThroughCache() throws DataAccessException {
+        GameDAO cached = new CachingGameDAO(gameDAO, 60_000);
+        cached.updateGame(new GameData(1, "Player1", null, "Game1", delegate.getGame(1).game()));
+        cached.close();
+
+        assertEquals("Player1", delegate.getGame(1).whiteUsername());
+    }
+
+    @Test
+    @DisplayName("Closing writes the queue")
+    public void close() throws DataAccessException {
+        gameDAO.updateGame(new GameData(1, "Player1", null, "Game1", delegate.getGame(1).game()));
+        gameDAO.close();
+
+        assertEquals("Player1", delegate.getGame(1).whiteUsername());
+        assertEquals(0, gameDAO.pendingGames());
+    }
+}
@@ -4,6 +4,7 @@ import chess.ChessGame;
 import dataaccess.*;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import org.junit.jupiter.api.*;
 import passoff.model.*;
 
@@ -57,6 +58,32 @@ public class GameServiceTests {
         );
     }
 
+    @Test
+    @DisplayName("Joins wait for the game's lock")
+    public void joinTakesLock() throws DataAccessException, InterruptedException {
+        GameDAO gameDAO = new MemoryGameDAO();
+        AuthDAO authDAO = new MemoryAuthDAO();
+        authDAO.createAuth(new AuthData("token1", "user1"));
+        GameLocks gameLocks = new GameLocks();
+        GameService lockedService = new GameService(gameDAO, authDAO, gameLocks);
+        int gameID = gameDAO.createGame("lockedGame");
+
+        Thread join = new Thread(() -> assertDoesNotThrow(() ->
+                lockedService.joinGame("token1", new JoinGameRequest(ChessGame.TeamColor.WHITE, gameID))));
+        synchronized (gameLocks.forGame(gameID)) {
+            join.start();
+            long deadline = System.currentTimeMillis() + 2_000;
+            while(join.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline){
+                Thread.sleep(1);
+            }
+            assertEquals(Thread.State.BLOCKED, join.getState());
+            assertNull(gameDAO.getGame(gameID).whiteUsername());
+        }
+        join.join(2_000);
+
+        assertEquals("user1", gameDAO.getGame(gameID).whiteUsername());
+    }
+
     @Test
     @DisplayName("Attempt to join taken slot in game")
     public void joinTakenGame() throws UnauthorizedException, DataAccessException, AlreadyTakenException {
@@ -66,12 +93,102 @@ public class GameServiceTests {
         );
     }
 
+    @Test
+    @DisplayName("Get Game")
+    public void getGame() throws UnauthorizedException, DataAccessException {
+        GameData game = gameService.getGame("token2", 1);
+
+        assertEquals("testGame", game.gameName());
+        assertEquals(new ChessGame(), game.game());
+    }
+
+    @Test
+    @DisplayName("Get game that doesn't exist")
+    public void getBadGame() {
+        assertThrows(DataAccessException.class, () ->
+                gameService.getGame("token1", 2)
+        );
+    }
+
+    @Test
+    @DisplayName("Get Game Unauthorized")
+    public void getGameUnauthorized() {
+        assertThrows(UnauthorizedException.class, () ->
+                gameService.getGame("token4", 1)
+        );
+    }
+
     @Test
     @DisplayName("List Games")
     public void listGames() throws UnauthorizedException, DataAccessException {
-        GameData[] games = gameService.listGames("token1").games();
+        GameSummary[] games = gameService.listGames("token1").games();
 
         assertEquals(1, games.length);
+        assertEquals("testGame", games[0].gameName());
+    }
+
+    @Test
+    @DisplayName("List Games In Pages")
+    public void listGamePages() throws UnauthorizedException, DataAccessException {
+        for(int i = 0; i < 4; i++){
+            gameService.createGame("token1", "game" + i);
+        }
+
+        ListGamesResult first = gameService.listGames("token1", new ListGamesRequest(false, false, null, null, 2));
+        assertArrayEquals(new int[]{1, 2}, Arrays.stream(first.games()).mapToInt(GameSummary::gameID).toArray());
+        assertEquals(2, first.nextCursor());
+
+        ListGamesResult last = gameService.listGames("token1",
+                new ListGamesRequest(false, false, null, 4, 2));
+        assertArrayEquals(new int[]{5}, Arrays.stream(last.games()).mapToInt(GameSummary::gameID).toArray());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    @DisplayName("List Games Without Paging")
+    public void listAllGames() throws UnauthorizedException, DataAccessException {
+        for(int i = 0; i < GameQuery.DEFAULT_LIMIT; i++){
+            gameService.createGame("token1", "game" + i);
+        }
+
+        ListGamesResult all = gameService.listGames("token1", ListGamesRequest.ALL_GAMES);
+        assertEquals(GameQuery.DEFAULT_LIMIT + 1, all.games().length);
+        assertNull(all.nextCursor());
+    }
+
+    @Test
+    @DisplayName("List Games By Name Ignores Case And Accents")
+    public void listGamePrefixFolded() throws UnauthorizedException, DataAccessException {
+        gameService.createGame("token1", "Échecs");
+
+        GameSummary[] upper = gameService.listGames("token1", new ListGamesRequest(false, false, "TEST", null, null)).games();
+        assertEquals(1, upper.length);
+        assertEquals("testGame", upper[0].gameName());
+
+        GameSummary[] accented = gameService.listGames("token1", new ListGamesRequest(false, false, "ech", null, null)).games();
+        assertEquals(1, accented.length);
+        assertEquals("Échecs", accented[0].gameName());
+    }
+
+    @Test
+    @DisplayName("List Games With Filters")
+    public void listGameFilters() throws UnauthorizedException, DataAccessException, AlreadyTakenException {
+        gameService.createGame("token1", "other");
+        gameService.joinGame("token2", new JoinGameRequest(ChessGame.TeamColor.WHITE, 1));
+        gameService.joinGame("token3", new JoinGameRequest(ChessGame.TeamColor.BLACK, 1));
+        gameService.joinGame("token2", new JoinGameRequest(ChessGame.TeamColor.BLACK, 2));
+
+        GameSummary[] mine = gameService.listGames("token3", new ListGamesRequest(true, false, null, null, null)).games();
+        assertEquals(1, mine.length);
+        assertEquals(1, mine[0].gameID());
+
+        GameSummary[] open = gameService.listGames("token3", new ListGamesRequest(false, true, null, null, null)).games();
+        assertEquals(1, open.length);
+        assertEquals(2, open[0].gameID());
+
+        GameSummary[] named = gameService.listGames("token1", new ListGamesRequest(false, false, "test", null, null)).games();
+        assertEquals(1, named.length);
+        assertEquals("testGame", named[0].gameName());
     }
 
     @Test
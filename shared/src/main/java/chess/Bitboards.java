@@ -0,0 +1,97 @@
+package chess;
+
+/**
+ * Square numbering and precomputed attack tables for the 64-bit board masks kept by {@link ChessBoard}.
+ * <p>
+ * Square 0 is a1 (row 1, column 1) and square 63 is h8; bit n of a mask is set when square n is occupied.
+ */
+public final class Bitboards {
+
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    public static final long[] KING_ATTACKS = new long[64];
+
+    /**
+     * Squares attacked by a pawn of each color, indexed by [color ordinal][square]
+     */
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    /**
+     * Squares strictly between two squares on the same row, column or diagonal, indexed by [square][square];
+     * empty when the squares are not aligned
+     */
+    public static final long[][] BETWEEN = new long[64][64];
+
+    /**
+     * The whole row, column or diagonal through two aligned squares, edge to edge, indexed by [square][square];
+     * empty when the squares are not aligned
+     */
+    public static final long[][] LINE = new long[64][64];
+
+    static {
+        for(int square = 0; square < 64; square++){
+            int r = square / 8;
+            int c = square % 8;
+            for(int deltaR = -2; deltaR <= 2; deltaR++){
+                for(int deltaC = -2; deltaC <= 2; deltaC++){
+                    if(Math.abs(deltaR) + Math.abs(deltaC) == 3) {KNIGHT_ATTACKS[square] |= bit(r + deltaR, c + deltaC);}
+                    if(Math.abs(deltaR) <= 1 && Math.abs(deltaC) <= 1 && (deltaR != 0 || deltaC != 0)){
+                        KING_ATTACKS[square] |= bit(r + deltaR, c + deltaC);
+                    }
+                }
+            }
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = bit(r + 1, c - 1) | bit(r + 1, c + 1);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = bit(r - 1, c - 1) | bit(r - 1, c + 1);
+
+            for(int[] direction : new int[][]{{0, 1}, {1, 0}, {1, 1}, {1, -1}}){
+                long line = (1L << square) | ray(r, c, direction[0], direction[1]) | ray(r, c, -direction[0], -direction[1]);
+                for(int sign = -1; sign <= 1; sign += 2){
+                    long between = 0;
+                    for(int curR = r + sign * direction[0], curC = c + sign * direction[1];
+                        bit(curR, curC) != 0; curR += sign * direction[0], curC += sign * direction[1]){
+                        BETWEEN[square][curR * 8 + curC] = between;
+                        LINE[square][curR * 8 + curC] = line;
+                        between |= bit(curR, curC);
+                    }
+                }
+            }
+        }
+    }
+
+    // every square from (r, c) outward in one direction, not including (r, c)
+    private static long ray(int r, int c, int deltaR, int deltaC) {
+        long ray = 0;
+        for(r += deltaR, c += deltaC; bit(r, c) != 0; r += deltaR, c += deltaC) {ray |= bit(r, c);}
+        return ray;
+    }
+
+    private Bitboards() {
+    }
+
+    // zero-based row and column, returning an empty mask when off the board
+    private static long bit(int r, int c) {
+        if(r < 0 || r > 7 || c < 0 || c > 7) {return 0L;}
+        return 1L << (r * 8 + c);
+    }
+
+    /**
+     * @return the square index of a one-based row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+
+    /**
+     * @return index of the mask holding pieces of the given color and type, 0 through 11
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+}
@@ -1,6 +1,7 @@
 package chess;
 
-import java.util.Arrays;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Objects;
 
 /**
@@ -9,13 +10,40 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardAdapter.class)
 public class ChessBoard {
 
     ChessPiece[][] squares = new ChessPiece[8][8];
+    // The square a pawn skipped with a two-square move on the last turn, where it can be captured en passant
+    private ChessPosition enPassantTarget;
+
+    // Occupancy masks mirroring squares, one per color/piece type plus one per color (see Bitboards)
+    private transient long[] pieceMasks = new long[12];
+    private transient long[] colorMasks = new long[2];
+    // Zobrist key of the piece placement alone, kept in step with the masks
+    private transient long pieceKey;
+    // Square of each color's king, or -1 if it has none
+    private transient int[] kingSquares = {-1, -1};
+    // The squares array the masks were built from; reading a legacy save replaces squares without addPiece
+    private transient ChessPiece[][] indexedSquares = squares;
+
     public ChessBoard() {
         
     }
 
+    /**
+     * Creates a deep copy of a board, so that moves on the copy never touch the original's pieces
+     */
+    public ChessBoard(ChessBoard other) {
+        for(int r = 0; r < 8; r++){
+            for(int c = 0; c < 8; c++){
+                ChessPiece piece = other.squares[r][c];
+                if(piece != null) {addPiece(ChessPosition.of(r + 1, c + 1), new ChessPiece(piece));}
+            }
+        }
+        enPassantTarget = other.getEnPassantTarget();
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -23,7 +51,205 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        setPiece(Bitboards.square(position), piece);
+    }
+
+    /**
+     * Same as {@link #addPiece} for a square index, so move making needs no ChessPosition
+     */
+    void setPiece(int square, ChessPiece piece) {
+        ensureIndexed();
+        ChessPiece oldPiece = squares[square / 8][square % 8];
+        if(oldPiece != null) {toggleMasks(oldPiece, square);}
+        squares[square / 8][square % 8] = piece;
+        if(piece != null) {toggleMasks(piece, square);}
+    }
+
+    private void toggleMasks(ChessPiece piece, int square) {
+        long bit = 1L << square;
+        int pieceIndex = Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceMasks[pieceIndex] ^= bit;
+        colorMasks[piece.getTeamColor().ordinal()] ^= bit;
+        pieceKey ^= Zobrist.PIECE_SQUARE[pieceIndex][square];
+
+        if(piece.getPieceType() == ChessPiece.PieceType.KING) {
+            long kings = pieceMasks[pieceIndex];
+            kingSquares[piece.getTeamColor().ordinal()] = ((kings & bit) != 0) ? square
+                    : (kings == 0) ? -1 : Long.numberOfTrailingZeros(kings);
+        }
+    }
+
+    private void ensureIndexed() {
+        if(indexedSquares == squares) {return;}
+        pieceMasks = new long[12];
+        colorMasks = new long[2];
+        pieceKey = 0;
+        kingSquares = new int[]{-1, -1};
+        for(int square = 0; square < 64; square++){
+            ChessPiece piece = squares[square / 8][square % 8];
+            if(piece != null) {toggleMasks(piece, square);}
+        }
+        indexedSquares = squares;
+        migrateLegacyPassant();
+    }
+
+    // Games saved before the board tracked the en passant target flagged the pawn that moved two squares instead
+    private void migrateLegacyPassant() {
+        for(int square = 24; square < 40; square++){
+            ChessPiece piece = squares[square / 8][square % 8];
+            if(piece == null || !piece.canBePassanted) {continue;}
+            piece.canBePassanted = false;
+            if(enPassantTarget == null && piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                enPassantTarget = Bitboards.position((piece.getTeamColor() == ChessGame.TeamColor.WHITE)
+                        ? square - 8 : square + 8);
+            }
+        }
+    }
+
+    /**
+     * @return the square a pawn skipped with a two-square move on the last turn, which the other side can capture
+     * onto en passant, or null if the last move was not a two-square pawn move
+     */
+    public ChessPosition getEnPassantTarget() {
+        ensureIndexed();
+        return enPassantTarget;
+    }
+
+    public void setEnPassantTarget(ChessPosition enPassantTarget) {
+        ensureIndexed();
+        this.enPassantTarget = enPassantTarget;
+    }
+
+    /**
+     * @return the en passant target as a square index, or -1 if there is none
+     */
+    int enPassantSquare() {
+        ensureIndexed();
+        return (enPassantTarget == null) ? -1 : Bitboards.square(enPassantTarget);
+    }
+
+    void setEnPassantSquare(int square) {
+        enPassantTarget = (square < 0) ? null : Bitboards.position(square);
+    }
+
+    /**
+     * @return square index of the given color's king, or -1 if it has none
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        ensureIndexed();
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * @return mask of the squares holding pieces of the given color and type
+     */
+    long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ensureIndexed();
+        return pieceMasks[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return mask of the squares holding pieces of the given color
+     */
+    long occupancy(ChessGame.TeamColor color) {
+        ensureIndexed();
+        return colorMasks[color.ordinal()];
+    }
+
+    /**
+     * @return mask of all occupied squares
+     */
+    long occupancy() {
+        ensureIndexed();
+        return colorMasks[0] | colorMasks[1];
+    }
+
+    /**
+     * Gets the Zobrist key of this board: its pieces, the castling rights left by unmoved kings and rooks on their
+     * starting squares, and the file of the en passant target. The piece part is updated by every
+     * {@link #addPiece} so this never scans the board.
+     *
+     * @return 64-bit hash of the position, not including whose turn it is
+     */
+    public long getZobristKey() {
+        ensureIndexed();
+        return pieceKey ^ castlingKey() ^ enPassantKey();
+    }
+
+    // Keyed by the same rule move generation castles by, so positions that offer different castling moves
+    // never share a key; the king's square is already in the piece part
+    private long castlingKey() {
+        long key = 0;
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()){
+            int kingSquare = kingSquare(color);
+            if(kingSquare < 0) {continue;}
+            if(canCastle(kingSquare, true)) {key ^= Zobrist.CASTLING[color.ordinal() * 2];}
+            if(canCastle(kingSquare, false)) {key ^= Zobrist.CASTLING[color.ordinal() * 2 + 1];}
+        }
+        return key;
+    }
+
+    /**
+     * A side keeps a castling right while its king and that rook are both unmoved on their starting squares
+     *
+     * @param kingside True for the rook in column 8, false for the rook in column 1
+     */
+    boolean hasCastlingRight(ChessGame.TeamColor color, boolean kingside) {
+        int homeSquare = (color == ChessGame.TeamColor.WHITE) ? 4 : 60;
+        return getPiece(homeSquare) != null && getPiece(homeSquare).getTeamColor() == color
+                && canCastle(homeSquare, kingside);
+    }
+
+    /**
+     * The one rule for castling rights, used by both move generation and the Zobrist key: the king on a square
+     * may castle with the rook in a corner of its row while both are unmoved. Whether the path is clear and safe
+     * is checked when the move is generated.
+     *
+     * @param kingside True for the rook in column 8, false for the rook in column 1
+     */
+    boolean canCastle(int kingSquare, boolean kingside) {
+        ChessPiece king = getPiece(kingSquare);
+        if(king == null) {return false;}
+        int rowStart = kingSquare - kingSquare % 8;
+        return isUnmoved(king, king.getTeamColor(), ChessPiece.PieceType.KING)
+                && isUnmoved(getPiece(rowStart + (kingside ? 7 : 0)), king.getTeamColor(), ChessPiece.PieceType.ROOK);
+    }
+
+    private static boolean isUnmoved(ChessPiece piece, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type && !piece.getHasMoved();
+    }
+
+    private long enPassantKey() {
+        return (enPassantTarget == null) ? 0 : Zobrist.EN_PASSANT_FILE[enPassantTarget.getColumn() - 1];
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, regardless of what stands on it
+     *
+     * @param position the square to look outward from
+     * @param attacker the team whose pieces may attack it
+     * @return True if a piece of the attacking team could capture on that square
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor attacker) {
+        return attackers(Bitboards.square(position), attacker, occupancy()) != 0;
+    }
+
+    /**
+     * Finds the pieces of a team attacking a square by looking outward from it: a piece attacks the square exactly
+     * when the same kind of piece standing on the square would attack it back (pawns use the opposite color).
+     *
+     * @param occupied the occupancy to use for blocking slider rays, normally {@link #occupancy()}
+     * @return mask of the attacking pieces
+     */
+    long attackers(int square, ChessGame.TeamColor attacker, long occupied) {
+        ChessGame.TeamColor defender = (attacker == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = pieces(attacker, ChessPiece.PieceType.QUEEN);
+        return (Bitboards.PAWN_ATTACKS[defender.ordinal()][square] & pieces(attacker, ChessPiece.PieceType.PAWN))
+                | (Bitboards.KNIGHT_ATTACKS[square] & pieces(attacker, ChessPiece.PieceType.KNIGHT))
+                | (Bitboards.KING_ATTACKS[square] & pieces(attacker, ChessPiece.PieceType.KING))
+                | (SlidingAttacks.bishopAttacks(square, occupied) & (pieces(attacker, ChessPiece.PieceType.BISHOP) | queens))
+                | (SlidingAttacks.rookAttacks(square, occupied) & (pieces(attacker, ChessPiece.PieceType.ROOK) | queens));
     }
 
     /**
@@ -37,36 +263,40 @@ public class ChessBoard {
         return squares[position.getRow()-1][position.getColumn()-1];
     }
 
+    ChessPiece getPiece(int square) {
+        return squares[square / 8][square % 8];
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
         for(int c = 1; c <= 8; c++){
-            addPiece(new ChessPosition(2, c), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(7, c), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, c), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, c), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
 
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
 
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
 
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
 
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
 
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
     }
 
     @Override
@@ -75,7 +305,7 @@ public class ChessBoard {
         for (int r = 8; r > 0; r--){
             out.append("|");
             for (int c = 1; c <= 8; c++){
-                ChessPiece piece = getPiece(new ChessPosition(r, c));
+                ChessPiece piece = getPiece(ChessPosition.of(r, c));
                 if(piece == null){
                     out.append(" ");
                 }
@@ -100,6 +330,8 @@ public class ChessBoard {
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        // equals ignores moved/en passant flags, so only the piece placement may go into the hash
+        ensureIndexed();
+        return Long.hashCode(pieceKey);
     }
 }
@@ -0,0 +1,123 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a board as the placement, castling and en passant fields of a FEN record,
+ * {"version":2,"placement":"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR","castling":"KQkq","enPassant":"-"},
+ * instead of the 8x8 array of piece objects reflection produced.
+ * <p>
+ * Boards without a version are read in that older shape, {"squares":[[...]],"enPassantTarget":{"row":3,"col":5}},
+ * so games saved before this format still load. Like FEN, the compact shape keeps only the moved flags castling
+ * depends on.
+ */
+final class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+
+    static final int VERSION = 2;
+
+    private static final ChessPieceAdapter PIECES = new ChessPieceAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        if(board == null) {
+            out.nullValue();
+            return;
+        }
+        ChessPosition enPassant = board.getEnPassantTarget();
+        out.beginObject();
+        out.name("version").value(VERSION);
+        out.name("placement").value(Fen.writePlacement(board));
+        out.name("castling").value(Fen.writeCastling(board));
+        out.name("enPassant").value(enPassant == null ? "-" : enPassant.toString());
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        int version = 1;
+        String placement = null;
+        String castling = "-";
+        String enPassant = "-";
+        ChessPiece[][] squares = null;
+        ChessPosition legacyTarget = null;
+        in.beginObject();
+        while(in.hasNext()){
+            switch (in.nextName()) {
+                case "version" -> version = in.nextInt();
+                case "placement" -> placement = in.nextString();
+                case "castling" -> castling = in.nextString();
+                case "enPassant" -> enPassant = in.nextString();
+                case "squares" -> squares = readSquares(in);
+                case "enPassantTarget" -> legacyTarget = readPosition(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if(version > VERSION) {throw new JsonParseException("Unsupported chess board version " + version + " at " + in.getPath());}
+        if(placement != null) {
+            try {
+                ChessBoard board = Fen.readPlacement(placement);
+                Fen.readCastling(board, castling);
+                if(!enPassant.equals("-")) {board.setEnPassantTarget(Fen.readSquare(enPassant));}
+                return board;
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Bad chess board at " + in.getPath(), e);
+            }
+        }
+
+        ChessBoard board = new ChessBoard();
+        if(squares != null) {
+            // Assigned rather than added so the board indexes it lazily and migrates canBePassanted flags
+            board.squares = squares;
+        }
+        if(legacyTarget != null) {board.setEnPassantTarget(legacyTarget);}
+        return board;
+    }
+
+    private static ChessPiece[][] readSquares(JsonReader in) throws IOException {
+        ChessPiece[][] squares = new ChessPiece[8][8];
+        in.beginArray();
+        for(int r = 0; in.hasNext(); r++){
+            in.beginArray();
+            for(int c = 0; in.hasNext(); c++){
+                ChessPiece piece = PIECES.read(in);
+                if(r >= 8 || c >= 8) {throw new JsonParseException("Chess board has more than 8x8 squares at " + in.getPath());}
+                squares[r][c] = piece;
+            }
+            in.endArray();
+        }
+        in.endArray();
+        return squares;
+    }
+
+    private static ChessPosition readPosition(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int row = 0;
+        int col = 0;
+        in.beginObject();
+        while(in.hasNext()){
+            switch (in.nextName()) {
+                case "row" -> row = in.nextInt();
+                case "col" -> col = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return ChessPosition.of(row, col);
+    }
+}
@@ -1,8 +1,9 @@
 package chess;
 
-import java.util.ArrayList;
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -11,11 +12,22 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessGameAdapter.class)
 public class ChessGame {
 
     private TeamColor teamTurn;
     private ChessBoard board;
     private boolean gameOver = false;
+    // Plies since the last capture or pawn move, and the number of the current full move (starting at 1)
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    // Moves made on the current board, most recent first
+    private final transient ArrayDeque<MoveUndo> history = new ArrayDeque<>();
+    // Legal moves and status of the side to move, valid while the position still has the Zobrist key they were
+    // computed for
+    private transient LegalMoves legalMoves;
+    private transient GameStatus status;
+    private transient long legalMovesKey;
 
     public ChessGame() {
         setTeamTurn(TeamColor.WHITE);
@@ -24,6 +36,25 @@ public class ChessGame {
         setBoard(board);
     }
 
+    /**
+     * Creates a game at a position set up elsewhere, without building the starting board first
+     */
+    ChessGame(TeamColor teamTurn, ChessBoard board) {
+        setTeamTurn(teamTurn);
+        setBoard(board);
+    }
+
+    /**
+     * Creates an independent copy of a game's position and state. The copy starts with no moves to take back.
+     */
+    public ChessGame(ChessGame other) {
+        setTeamTurn(other.getTeamTurn());
+        setBoard(new ChessBoard(other.getBoard()));
+        setGameOver(other.getGameOver());
+        setHalfmoveClock(other.getHalfmoveClock());
+        setFullmoveNumber(other.getFullmoveNumber());
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -47,6 +78,20 @@ public class ChessGame {
 
     public void setGameOver(boolean gameOver){this.gameOver = gameOver;}
 
+    /**
+     * @return plies since the last capture or pawn move, for the fifty-move rule
+     */
+    public int getHalfmoveClock() {return halfmoveClock;}
+
+    public void setHalfmoveClock(int halfmoveClock) {this.halfmoveClock = halfmoveClock;}
+
+    /**
+     * @return number of the current full move, starting at 1 and increasing after each black move
+     */
+    public int getFullmoveNumber() {return fullmoveNumber;}
+
+    public void setFullmoveNumber(int fullmoveNumber) {this.fullmoveNumber = fullmoveNumber;}
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -63,34 +108,25 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
+        if(getBoard().getPiece(startPosition) == null) {return null;}
+
+        IntMoveList moves = new IntMoveList();
+        validMoves(startPosition, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Same as {@link #validMoves(ChessPosition)}, but adds the moves to a list as {@link Move}-encoded ints,
+     * so a reused list makes this allocation free
+     *
+     * @param moves list the legal moves are added to, after any moves it already holds
+     */
+    public void validMoves(ChessPosition startPosition, IntMoveList moves) {
         ChessBoard board = getBoard();
         ChessPiece curPiece = board.getPiece(startPosition);
-        if(curPiece == null) {return null;}
-
-        List<ChessMove> validMoves = new ArrayList<>();
-        for(ChessMove move : curPiece.pieceMoves(board, startPosition)){
-
-            // King should never be in check during move (castling)
-            if(curPiece.getPieceType() == ChessPiece.PieceType.KING
-                    && Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) > 1){
-                if(castlingMoveCheck(move)) {validMoves.add(move);}
-                continue;
-            }
-
-            ChessPiece capturedPiece = board.getPiece(move.getEndPosition());
-            ChessPiece replacementPiece;
-            if (move.getPromotionPiece() == null) {replacementPiece = curPiece;}
-            else {replacementPiece = new ChessPiece(curPiece.getTeamColor(), move.getPromotionPiece());}
-
-            board.addPiece(move.getStartPosition(), null);
-            board.addPiece(move.getEndPosition(), replacementPiece);
-            if (!isInCheck(curPiece.getTeamColor())) {validMoves.add(move);}
-            board.addPiece(move.getStartPosition(), curPiece);
-            board.addPiece(move.getEndPosition(), capturedPiece);
-        }
+        if(curPiece == null) {return;}
 
-
-        return validMoves;
+        new MoveGenerator(board, curPiece.getTeamColor()).generate(startPosition, moves);
     }
 
     /**
@@ -100,6 +136,9 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
+        if(!move.isOnBoard()) {
+            throw new InvalidMoveException("Move is off the board!");
+        }
         ChessBoard board = getBoard();
         ChessPiece piece = board.getPiece(move.getStartPosition());
 
@@ -112,92 +151,114 @@ public class ChessGame {
         if (piece.getTeamColor()!= getTeamTurn()){
             throw new InvalidMoveException("Not your turn!");
         }
-        if(!validMoves(move.getStartPosition()).contains(move)) {
+        if(!getLegalMoves().contains(move)) {
             throw new InvalidMoveException("Illegal move!");
         }
 
-        if(move.getPromotionPiece() != null){
-            piece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-        }
-
-        board.addPiece(move.getStartPosition(), null);
-        board.addPiece(move.getEndPosition(), piece);
-
-        // Castling also moves the designated rook next to the king
-        if(piece.getPieceType() == ChessPiece.PieceType.KING
-                && Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) > 1){
-
-            int row = move.getStartPosition().getRow();
-            int startColumn = move.getStartPosition().getColumn();
-            int endColumn = move.getEndPosition().getColumn();
+        applyMove(Move.encode(move));
+    }
 
-            int rookStartCol = (startColumn < endColumn) ? 8: 1;
-            int rookEndCol = (rookStartCol == 8) ? endColumn - 1 : endColumn + 1;
-            ChessPosition rookStartPos = new ChessPosition(row, rookStartCol);
-            ChessPosition rookEndPos = new ChessPosition(row, rookEndCol);
+    void applyMove(ChessMove move) {
+        applyMove(Move.encode(move));
+    }
 
-            ChessPiece rook = board.getPiece(rookStartPos);
-            board.addPiece(rookStartPos, null);
-            board.addPiece(rookEndPos, rook);
-        }
+    /**
+     * Plays a move without checking that it is legal, recording what is needed to take it back
+     * with {@link #unmakeMove()}
+     *
+     * @param move a {@link Move}-encoded move the piece at its start square can make, as given by
+     *             {@link ChessPiece#pieceMoves}; flags are not needed
+     */
+    void applyMove(int move) {
+        ChessBoard board = getBoard();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece movedPiece = board.getPiece(from);
+        ChessPiece piece = movedPiece;
+        ChessPiece capturedPiece = board.getPiece(to);
+        int capturedSquare = to;
 
         // En passant removes a piece not on the destination square
-        ChessPosition passantPosition =
-                new ChessPosition(move.getStartPosition().getRow(), move.getEndPosition().getColumn());
-        ChessPiece passantPiece = board.getPiece(passantPosition);
-        if(piece.getPieceType() == ChessPiece.PieceType.PAWN
-                && Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) == 1
-                && passantPiece != null
-                && passantPiece.getCanPassant()){
-            board.addPiece(passantPosition, null);
-        }
-        if(piece.getPieceType() == ChessPiece.PieceType.PAWN
-                && Math.abs(move.getEndPosition().getRow() - move.getStartPosition().getRow()) == 2){
-            piece.setCanPassant(true);
+        int previousPassant = board.enPassantSquare();
+        if(piece.getPieceType() == ChessPiece.PieceType.PAWN && to == previousPassant){
+            capturedSquare = from - from % 8 + to % 8;
+            capturedPiece = board.getPiece(capturedSquare);
+            board.setPiece(capturedSquare, null);
         }
 
-        // En passant chance is only for one turn
-        for(int r: new int[] {4,5}){
-            for(int c=1 ; c<=8; c++){
-                ChessPosition curPos = new ChessPosition(r, c);
-                ChessPiece curPiece = getBoard().getPiece(curPos);
-                if(curPiece != null && curPiece.getTeamColor() != getTeamTurn()) {curPiece.setCanPassant(false);}
-            }
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if(promotion != null){
+            piece = new ChessPiece(piece.getTeamColor(), promotion);
         }
-        setBoard(board);
+
+        board.setPiece(from, null);
+        board.setPiece(to, piece);
+
+        // Castling also moves the designated rook next to the king
+        if(isCastle(piece, move)) {moveCastlingRook(move, false);}
+
+        // En passant chance is only for one turn, on the square a pawn just skipped
+        boolean doublePush = piece.getPieceType() == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16;
+        board.setEnPassantSquare(doublePush ? (from + to) / 2 : -1);
+
+        history.push(new MoveUndo(move, getTeamTurn(), movedPiece, movedPiece.getHasMoved(),
+                capturedPiece, capturedSquare, previousPassant, halfmoveClock));
+        halfmoveClock = (capturedPiece != null || movedPiece.getPieceType() == ChessPiece.PieceType.PAWN)
+                ? 0 : halfmoveClock + 1;
+        if(piece.getTeamColor() == TeamColor.BLACK) {fullmoveNumber++;}
         piece.setHasMoved(true);
-        if(getTeamTurn() == TeamColor.BLACK) {setTeamTurn(TeamColor.WHITE);}
-        else {setTeamTurn(TeamColor.BLACK);}
+        setTeamTurn(opponent(piece.getTeamColor()));
     }
 
-    private ChessPosition getKingPosition(TeamColor teamColor){
+    /**
+     * Takes back the most recent move made on this game, restoring the board, the turn, castling rights
+     * and any en passant chance to what they were before it
+     *
+     * @throws IllegalStateException if no move has been made since the board was set
+     */
+    public void unmakeMove() {
+        if(history.isEmpty()) {throw new IllegalStateException("No move to take back");}
+        MoveUndo undo = history.pop();
         ChessBoard board = getBoard();
-        for(int r=1; r<=8; r++){
-            for(int c=1 ; c<=8; c++){
-                ChessPosition curPos = new ChessPosition(r, c);
-                ChessPiece curPiece = board.getPiece(curPos);
-                if(curPiece != null && curPiece.getTeamColor() == teamColor
-                        && curPiece.getPieceType() == ChessPiece.PieceType.KING){
-                    return curPos;
-                }
-            }
-        }
-        return null; // should not happen
+        int move = undo.move();
+        ChessPiece piece = undo.movedPiece();
+
+        if(isCastle(piece, move)) {moveCastlingRook(move, true);}
+        board.setPiece(Move.to(move), null);
+        board.setPiece(undo.capturedSquare(), undo.capturedPiece());
+        board.setPiece(Move.from(move), piece);
+
+        piece.setHasMoved(undo.movedHadMoved());
+        board.setEnPassantSquare(undo.enPassantSquare());
+        halfmoveClock = undo.halfmoveClock();
+        if(piece.getTeamColor() == TeamColor.BLACK) {fullmoveNumber--;}
+        setTeamTurn(undo.turn());
     }
 
-    private boolean positionInCheck(ChessPosition pos){
-        ChessBoard board = getBoard();
-        for(int r=1; r<=8; r++){
-            for(int c=1 ; c<=8; c++){
-                ChessPosition curPos = new ChessPosition(r, c);
-                ChessPiece curPiece = board.getPiece(curPos);
-                if(curPiece == null) {continue;}
-                for(ChessMove curMove : curPiece.pieceMoves(board, curPos)) {
-                    if (curMove.getEndPosition().equals(pos)) {return true;}
-                }
-            }
-        }
-        return false;
+    private static boolean isCastle(ChessPiece piece, int move) {
+        return piece.getPieceType() == ChessPiece.PieceType.KING
+                && Math.abs(Move.to(move) % 8 - Move.from(move) % 8) > 1;
+    }
+
+    private void moveCastlingRook(int move, boolean undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int rowStart = from - from % 8;
+
+        int rookStart = (from < to) ? rowStart + 7 : rowStart;
+        int rookEnd = (from < to) ? to - 1 : to + 1;
+        int rookFrom = undo ? rookEnd : rookStart;
+        int rookTo = undo ? rookStart : rookEnd;
+
+        ChessPiece rook = getBoard().getPiece(rookFrom);
+        getBoard().setPiece(rookFrom, null);
+        getBoard().setPiece(rookTo, rook);
+    }
+
+    private ChessPosition getKingPosition(TeamColor teamColor){
+        int kingSquare = getBoard().kingSquare(teamColor);
+        if(kingSquare < 0) {return null;} // should not happen
+        return Bitboards.position(kingSquare);
     }
 
     /**
@@ -207,13 +268,22 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        return positionInCheck(getKingPosition(teamColor));
+        ChessPosition kingPos = getKingPosition(teamColor);
+        if(kingPos == null) {return false;}
+        return getBoard().isSquareAttacked(kingPos, opponent(teamColor));
+    }
+
+    private static TeamColor opponent(TeamColor teamColor) {
+        return (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     private boolean kingCanMove(TeamColor teamColor){
         ChessPosition kingPos = getKingPosition(teamColor);
+        if(kingPos == null) {return false;}
+        IntMoveList moves = new IntMoveList();
+        new MoveGenerator(getBoard(), teamColor).generate(kingPos, moves);
 
-        return !validMoves(kingPos).isEmpty();
+        return !moves.isEmpty();
     }
 
     /**
@@ -223,6 +293,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        if(teamColor == getTeamTurn()) {return getStatus().state() == GameStatus.State.CHECKMATE;}
         if(!isInCheck(teamColor) || kingCanMove(teamColor)) {return false;}
 
         return noPieceMoves(teamColor);
@@ -236,22 +307,61 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        if(teamColor == getTeamTurn()) {return getStatus().state() == GameStatus.State.STALEMATE;}
         if(isInCheck(teamColor) || kingCanMove(teamColor)) {return false;}
 
         return noPieceMoves(teamColor);
     }
 
     public boolean noPieceMoves(TeamColor teamColor){
-        for(int r=1; r<=8; r++){
-            for(int c=1 ; c<=8; c++){
-                ChessPosition curPos = new ChessPosition(r, c);
-                ChessPiece curPiece = getBoard().getPiece(curPos);
-                if(curPiece == null || curPiece.getTeamColor() != teamColor) {continue;}
-                if(!validMoves(curPos).isEmpty()) {return false;}
-            }
+        if(teamColor == getTeamTurn()) {return getLegalMoves().isEmpty();}
+        return !new MoveGenerator(getBoard(), teamColor).hasLegalMove();
+    }
+
+    /**
+     * Gets every legal move of the side to move in one pass, with the check and pin work shared between pieces.
+     * The result is kept until the position changes, so validating a move and then reporting the status of the
+     * game generate moves once.
+     *
+     * @return legal moves of the team whose turn it is
+     */
+    public LegalMoves getLegalMoves() {
+        long key = getZobristKey();
+        if(legalMoves == null || legalMovesKey != key) {
+            legalMoves = new LegalMoves(getBoard(), getTeamTurn());
+            status = null;
+            legalMovesKey = key;
         }
+        return legalMoves;
+    }
 
-        return true;
+    /**
+     * Same as {@link #getLegalMoves()} for either team; only the side to move's moves are kept between calls
+     *
+     * @param teamColor which team to get legal moves for
+     */
+    public LegalMoves getLegalMoves(TeamColor teamColor) {
+        if(teamColor == getTeamTurn()) {return getLegalMoves();}
+        return new LegalMoves(getBoard(), teamColor);
+    }
+
+    /**
+     * Gets whether the side to move is in check, checkmate or stalemate, and how many legal moves it has. This
+     * reads {@link #getLegalMoves()}, so asking for checkmate, stalemate and check after a move costs one
+     * generation.
+     *
+     * @return status of the team whose turn it is
+     */
+    public GameStatus getStatus() {
+        LegalMoves moves = getLegalMoves();
+        if(status != null) {return status;}
+
+        GameStatus.State state;
+        if(moves.isEmpty()) {state = moves.isInCheck() ? GameStatus.State.CHECKMATE : GameStatus.State.STALEMATE;}
+        else {state = moves.isInCheck() ? GameStatus.State.CHECK : GameStatus.State.ONGOING;}
+
+        status = new GameStatus(state, moves.size());
+        return status;
     }
 
     /**
@@ -261,25 +371,20 @@ public class ChessGame {
      * @param move the castling move being checked
      */
     public boolean castlingMoveCheck(ChessMove move){
-        ChessBoard board = getBoard();
-        ChessPiece curPiece = board.getPiece(move.getStartPosition());
-        int moveCurCol = move.getStartPosition().getColumn();
-        int moveEndCol = move.getEndPosition().getColumn();
-        int deltaC = (moveCurCol < moveEndCol) ? 1 : -1;
-
-        while(moveCurCol != moveEndCol + deltaC){
-            ChessPosition curPos = new ChessPosition(move.getStartPosition().getRow(), moveCurCol);
-            board.addPiece(curPos, curPiece);
-            if(isInCheck(curPiece.getTeamColor())){
-                board.addPiece(curPos, null);
-                board.addPiece(move.getStartPosition(), curPiece);
-                return false;
-            }
-            board.addPiece(curPos, null);
-            moveCurCol += deltaC;
-        }
-        board.addPiece(move.getStartPosition(), curPiece);
-        return true;
+        TeamColor color = getBoard().getPiece(move.getStartPosition()).getTeamColor();
+        return new MoveGenerator(getBoard(), color).isCastleLegal(Move.encode(move));
+    }
+
+    /**
+     * Gets the Zobrist key of the current position, covering the pieces, whose turn it is, castling rights and any
+     * en passant file. The key is kept up to date as pieces move, so this is constant time.
+     *
+     * @return 64-bit hash of the position
+     * @see ChessBoard#getZobristKey()
+     */
+    public long getZobristKey() {
+        long key = getBoard().getZobristKey();
+        return (getTeamTurn() == TeamColor.BLACK) ? key ^ Zobrist.BLACK_TO_MOVE : key;
     }
 
     /**
@@ -289,6 +394,10 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        history.clear();
+        // Dropped rather than left to the key check, so a new board never relies on its key differing
+        legalMoves = null;
+        status = null;
     }
 
     /**
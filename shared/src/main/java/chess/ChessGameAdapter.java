@@ -0,0 +1,84 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a game with the field names reflection used and its board in the compact shape of
+ * {@link ChessBoardAdapter}, e.g. {"version":2,"teamTurn":"WHITE","board":{...},"gameOver":false,
+ * "halfmoveClock":0,"fullmoveNumber":1}.
+ * <p>
+ * Games without a version are read the same way, their board falling back to the legacy squares shape.
+ * Missing counters take the values of a new game.
+ */
+final class ChessGameAdapter extends TypeAdapter<ChessGame> {
+
+    private static final ChessBoardAdapter BOARDS = new ChessBoardAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        if(game == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("version").value(ChessBoardAdapter.VERSION);
+        out.name("teamTurn").value(game.getTeamTurn() == null ? null : game.getTeamTurn().name());
+        out.name("board");
+        BOARDS.write(out, game.getBoard());
+        out.name("gameOver").value(game.getGameOver());
+        out.name("halfmoveClock").value(game.getHalfmoveClock());
+        out.name("fullmoveNumber").value(game.getFullmoveNumber());
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        int version = 1;
+        ChessGame.TeamColor teamTurn = null;
+        ChessBoard board = null;
+        boolean gameOver = false;
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        in.beginObject();
+        while(in.hasNext()){
+            switch (in.nextName()) {
+                case "version" -> version = in.nextInt();
+                case "teamTurn" -> teamTurn = readColor(in);
+                case "board" -> board = BOARDS.read(in);
+                case "gameOver" -> gameOver = in.nextBoolean();
+                case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if(version > ChessBoardAdapter.VERSION) {
+            throw new JsonParseException("Unsupported chess game version " + version + " at " + in.getPath());
+        }
+
+        ChessGame game = new ChessGame(teamTurn, board);
+        game.setGameOver(gameOver);
+        game.setHalfmoveClock(halfmoveClock);
+        game.setFullmoveNumber(fullmoveNumber);
+        return game;
+    }
+
+    private static ChessGame.TeamColor readColor(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return ChessGame.TeamColor.valueOf(in.nextString());
+    }
+}
@@ -10,6 +10,10 @@ import java.util.Objects;
  */
 public class ChessMove {
 
+    // Shared instances indexed by start square, end square and promotion (0 for none, otherwise piece type
+    // ordinal plus one), created on first use. Moves are immutable, so racing threads at worst build duplicates.
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64 * 7];
+
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
@@ -21,6 +25,37 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance of a move instead of allocating one. Moves are immutable and compare by value,
+     * so a shared instance behaves exactly like a new one.
+     *
+     * @return the canonical move, or a new one if either position is off the board
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if(!startPosition.isOnBoard() || !endPosition.isOnBoard()) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        return of(Bitboards.square(startPosition), Bitboards.square(endPosition), promotionPiece);
+    }
+
+    static ChessMove of(int startSquare, int endSquare, ChessPiece.PieceType promotionPiece) {
+        int index = ((startSquare * 64) + endSquare) * 7 + ((promotionPiece == null) ? 0 : promotionPiece.ordinal() + 1);
+        ChessMove move = MOVES[index];
+        if(move == null) {
+            move = new ChessMove(Bitboards.position(startSquare), Bitboards.position(endSquare), promotionPiece);
+            MOVES[index] = move;
+        }
+        return move;
+    }
+
+    /**
+     * @return True if both positions are on the board
+     */
+    boolean isOnBoard() {
+        return startPosition.isOnBoard() && endPosition.isOnBoard();
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -1,8 +1,8 @@
 package chess;
 
-import java.util.ArrayList;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -11,18 +11,29 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPieceAdapter.class)
 public class ChessPiece {
 
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
     private boolean hasMoved;
-    private boolean canBePassanted;
+    // Only set in games saved before ChessBoard tracked the en passant target; the board migrates it on load
+    boolean canBePassanted;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
         this.hasMoved = false;
-        this.canBePassanted = false;
+    }
+
+    /**
+     * Creates an independent copy of a piece, including its moved and legacy en passant flags
+     */
+    public ChessPiece(ChessPiece other) {
+        this.pieceColor = other.pieceColor;
+        this.type = other.type;
+        this.hasMoved = other.hasMoved;
+        this.canBePassanted = other.canBePassanted;
     }
 
     /**
@@ -55,8 +66,20 @@ public class ChessPiece {
 
     public void setHasMoved(boolean hasMoved) {this.hasMoved = hasMoved;}
 
+    /**
+     * @return the legacy per-pawn en passant flag, which is only set until the board migrates it
+     * @deprecated the board tracks en passant; use {@link ChessBoard#getEnPassantTarget()}
+     */
+    @Deprecated
     public boolean getCanPassant() {return canBePassanted;}
 
+    /**
+     * Sets the legacy per-pawn en passant flag. A board picks it up as its en passant target the next time it
+     * indexes its pieces, as when it is loaded.
+     *
+     * @deprecated the board tracks en passant; use {@link ChessBoard#setEnPassantTarget}
+     */
+    @Deprecated
     public void setCanPassant(boolean canBePassanted) {this.canBePassanted = canBePassanted;}
 
     @Override
@@ -100,237 +123,136 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        ChessPiece piece = board.getPiece(myPosition);
-
-        if(piece.getPieceType() == PieceType.BISHOP){
-            return bishopMoves(board, myPosition);
-        }
-
-        if(piece.getPieceType() == PieceType.ROOK){
-            return rookMoves(board, myPosition);
-        }
-
-        if(piece.getPieceType() == PieceType.KNIGHT){
-            return knightMoves(board, myPosition);
-        }
-
-        if(piece.getPieceType() == PieceType.QUEEN){
-            List<ChessMove> validMoves = bishopMoves(board, myPosition);
-            validMoves.addAll(rookMoves(board, myPosition));
-            return validMoves;
-        }
-
-        if(piece.getPieceType() == PieceType.KING){
-            return kingMoves(board, myPosition);
-        }
-
-        if(piece.getPieceType() == PieceType.PAWN){
-            return pawnMoves(board, myPosition);
-        }
-
-        return null;
+        IntMoveList moves = new IntMoveList();
+        pieceMoves(board, myPosition, moves);
+        return moves.toChessMoves();
     }
 
-    private boolean checkMove(ChessBoard board, ChessMove move){
-        ChessPosition endPosition = move.getEndPosition();
-        int r = endPosition.getRow();
-        int c = endPosition.getColumn();
-        if(r <= 0 || r > 8 || c <= 0 || c > 8) {return false;}
-
-        ChessPiece piece = board.getPiece(move.getStartPosition());
-        ChessPiece otherPiece = board.getPiece(endPosition);
-        return otherPiece == null || otherPiece.getTeamColor() != piece.getTeamColor();
-
-    }
-
-    private List<ChessMove> moveTillEnd(ChessBoard board, ChessPosition myPosition, int deltaR, int deltaC){
-        List<ChessMove> validMoves = new ArrayList<>();
-        int r = myPosition.getRow() + deltaR;
-        int c = myPosition.getColumn() + deltaC;
-        ChessMove move = new ChessMove(myPosition, new ChessPosition(r, c), null);
-        while(checkMove(board, move)){
-            validMoves.add(move);
-            if(board.getPiece(new ChessPosition(r, c)) != null) {break;}
-            r += deltaR;
-            c += deltaC;
-            move = new ChessMove(myPosition, new ChessPosition(r, c), null);
-        }
-        return validMoves;
-    }
-
-    private List<ChessMove> bishopMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> validMoves = new ArrayList<>();
-        for(int deltaR = -1; deltaR <= 1; deltaR += 2){
-            for(int deltaC = -1; deltaC <= 1; deltaC += 2){
-                validMoves.addAll(moveTillEnd(board, myPosition, deltaR, deltaC));
-            }
-        }
-
-        return validMoves;
+    /**
+     * Same as {@link #pieceMoves(ChessBoard, ChessPosition)}, but adds the moves to a list as {@link Move}-encoded
+     * ints with their flags set, allocating nothing
+     *
+     * @param moves list the moves are added to, after any moves it already holds
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, IntMoveList moves) {
+        pieceMoves(board, Bitboards.square(myPosition), -1L, moves);
     }
 
-    private List<ChessMove> rookMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> validMoves = new ArrayList<>();
-        for(int deltaR = -1; deltaR <= 1; deltaR++){
-            for(int deltaC = -1; deltaC <= 1; deltaC ++){
-                if(Math.abs(deltaR) + Math.abs(deltaC) != 1) {continue;}
-                validMoves.addAll(moveTillEnd(board, myPosition, deltaR, deltaC));
-            }
+    /**
+     * Adds the moves of the piece on a square whose end square is in the allowed mask. Castling and en passant are
+     * added whatever the mask, since whether they are legal does not come down to their end square.
+     */
+    void pieceMoves(ChessBoard board, int square, long allowed, IntMoveList moves) {
+        ChessPiece piece = board.getPiece(square);
+        long occupied = board.occupancy();
+
+        switch (piece.getPieceType()) {
+            case BISHOP -> targetMoves(board, piece, square, SlidingAttacks.bishopAttacks(square, occupied) & allowed, moves);
+            case ROOK -> targetMoves(board, piece, square, SlidingAttacks.rookAttacks(square, occupied) & allowed, moves);
+            case QUEEN -> targetMoves(board, piece, square, SlidingAttacks.queenAttacks(square, occupied) & allowed, moves);
+            case KNIGHT -> targetMoves(board, piece, square, Bitboards.KNIGHT_ATTACKS[square] & allowed, moves);
+            case KING -> kingMoves(board, piece, square, allowed, moves);
+            case PAWN -> pawnMoves(board, piece, square, allowed, moves);
         }
-
-        return validMoves;
     }
 
-    private List<ChessMove> knightMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> validMoves = new ArrayList<>();
-        for(int deltaR = -2; deltaR <= 2; deltaR++){
-            for(int deltaC = -2; deltaC <= 2; deltaC++){
-                if(Math.abs(deltaR) + Math.abs(deltaC) != 3) {continue;}
-                ChessMove move = new ChessMove(myPosition, new ChessPosition(myPosition.getRow()+deltaR,
-                        myPosition.getColumn() + deltaC), null);
-                if(checkMove(board, move)){
-                    validMoves.add(move);
-                }
-            }
+    // Moves to every target square not held by a friendly piece
+    private static void targetMoves(ChessBoard board, ChessPiece piece, int square, long targets, IntMoveList moves) {
+        long enemies = board.occupancy(opponent(piece.getTeamColor()));
+        targets &= ~board.occupancy(piece.getTeamColor());
+        for(; targets != 0; targets &= targets - 1){
+            int target = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.encode(square, target, ((enemies & (1L << target)) != 0) ? Move.CAPTURE : 0));
         }
-
-        return validMoves;
     }
 
-    private List<ChessMove> kingMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> validMoves = new ArrayList<>();
-        ChessPiece piece = board.getPiece(myPosition);
+    private static void kingMoves(ChessBoard board, ChessPiece piece, int square, long allowed, IntMoveList moves) {
+        targetMoves(board, piece, square, Bitboards.KING_ATTACKS[square] & allowed, moves);
 
-        for(int deltaR = -1; deltaR <= 1; deltaR++){
-            for(int deltaC = -1; deltaC <= 1; deltaC++){
-                ChessMove move = new ChessMove(myPosition, new ChessPosition(myPosition.getRow()+deltaR,
-                        myPosition.getColumn() + deltaC), null);
-                if(checkMove(board, move)){
-                    validMoves.add(move);
-                }
-            }
-        }
-
-        // Castling
+        // Castling, by the same rule the Zobrist key records castling rights with
         if(!piece.getHasMoved()){
-            for(int rookCol: new int[]{1, 8}){
-                ChessPiece rook = board.getPiece(new ChessPosition(myPosition.getRow(), rookCol));
-                if(rook == null || rook.getPieceType() != PieceType.ROOK || rook.getHasMoved()) {continue;}
+            int rowStart = square - square % 8;
+            for(int rookSquare = rowStart; rookSquare <= rowStart + 7; rookSquare += 7){
+                if(!board.canCastle(square, rookSquare > square)) {continue;}
 
-
-                int delta = (myPosition.getColumn() < rookCol) ? 1 : -1;
-                int curCol = myPosition.getColumn() + delta;
-                boolean blocked = false;
+                int delta = (square < rookSquare) ? 1 : -1;
+                int target = square + 2 * delta;
+                if(target < rowStart || target > rowStart + 7) {continue;}
 
                 // Must be clear path between rook and king, even though king only moves two squares
-                while(curCol != rookCol){
-                    if(board.getPiece(new ChessPosition(myPosition.getRow(), curCol)) != null){
+                boolean blocked = false;
+                for(int between = square + delta; between != rookSquare; between += delta){
+                    if(board.getPiece(between) != null){
                         blocked = true;
                         break;
                     }
-                    curCol += delta;
                 }
 
-                if(!blocked) {validMoves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(),
-                        myPosition.getColumn()+2*delta),
-                        null));}
+                if(!blocked) {moves.add(Move.encode(square, target, Move.CASTLE));}
             }
         }
-
-        return validMoves;
     }
 
-    private List<ChessMove> pawnMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> validMoves = new ArrayList<>();
-        ChessPiece piece = board.getPiece(myPosition);
-
+    private static void pawnMoves(ChessBoard board, ChessPiece piece, int square, long allowed, IntMoveList moves) {
         int dir;
         boolean canPromote;
         boolean firstMove;
-        int curRow = myPosition.getRow();
-        int curCol = myPosition.getColumn();
+        int row = square / 8 + 1;
         if(piece.getTeamColor() == ChessGame.TeamColor.WHITE){
-            dir = 1;
-            canPromote = curRow == 7;
-            firstMove = curRow == 2;
+            dir = 8;
+            canPromote = row == 7;
+            firstMove = row == 2;
         }
         else{
-            dir = -1;
-            canPromote = curRow == 2;
-            firstMove = curRow == 7;
+            dir = -8;
+            canPromote = row == 2;
+            firstMove = row == 7;
         }
 
-        ChessPosition forwardPosition = new ChessPosition(curRow + dir, curCol);
-        ChessPosition doubleForwardPosition = new ChessPosition(curRow + 2*dir, curCol);
-        ChessPosition diagLeftPosition = new ChessPosition(curRow + dir, curCol-1);
-        ChessPosition diagRightPosition = new ChessPosition(curRow + dir, curCol+1);
-
+        int forward = square + dir;
+        if(forward < 0 || forward > 63) {return;}
 
-        if(board.getPiece(forwardPosition) == null){
+        if(board.getPiece(forward) == null){
             if(!canPromote) {
-                validMoves.add(new ChessMove(myPosition, forwardPosition, null));
+                if((allowed & (1L << forward)) != 0) {moves.add(Move.encode(square, forward, 0));}
 
-                if (firstMove && board.getPiece(doubleForwardPosition) == null) {
-                    validMoves.add(new ChessMove(myPosition, doubleForwardPosition, null));
+                if (firstMove && board.getPiece(forward + dir) == null && (allowed & (1L << (forward + dir))) != 0) {
+                    moves.add(Move.encode(square, forward + dir, Move.DOUBLE_PUSH));
                 }
             }
-            else{
-                validMoves.addAll(promoteMoves(myPosition, forwardPosition));
-            }
-
-        }
-        if(curCol != 1 && board.getPiece(diagLeftPosition) != null && board.getPiece(diagLeftPosition).getTeamColor() != piece.getTeamColor()){
-            if(!canPromote) {
-                validMoves.add(new ChessMove(myPosition, diagLeftPosition, null));
-            }
-            else{
-                validMoves.addAll(promoteMoves(myPosition, diagLeftPosition));
+            else if((allowed & (1L << forward)) != 0){
+                promoteMoves(square, forward, 0, moves);
             }
         }
-        if(curCol != 8 && board.getPiece(diagRightPosition) != null && board.getPiece(diagRightPosition).getTeamColor() != piece.getTeamColor()){
+
+        long captures = Bitboards.PAWN_ATTACKS[piece.getTeamColor().ordinal()][square]
+                & board.occupancy(opponent(piece.getTeamColor())) & allowed;
+        for(; captures != 0; captures &= captures - 1){
+            int target = Long.numberOfTrailingZeros(captures);
             if(!canPromote) {
-                validMoves.add(new ChessMove(myPosition, diagRightPosition, null));
+                moves.add(Move.encode(square, target, Move.CAPTURE));
             }
             else{
-                validMoves.addAll(promoteMoves(myPosition, diagRightPosition));
+                promoteMoves(square, target, Move.CAPTURE, moves);
             }
-
         }
 
-        // en passant
-        ChessPiece leftPawn = (myPosition.getColumn() > 1)
-                ? board.getPiece(new ChessPosition(myPosition.getRow(), myPosition.getColumn()-1))
-                : null;
-        ChessPiece rightPawn = (myPosition.getColumn() < 8)
-                ? board.getPiece(new ChessPosition(myPosition.getRow(), myPosition.getColumn()+1))
-                : null;
-        if(leftPawn != null
-                && leftPawn.getPieceType() == PieceType.PAWN
-                && leftPawn.getTeamColor() != piece.getTeamColor()
-                && leftPawn.getCanPassant()){
-            validMoves.add(new ChessMove(myPosition,
-                    new ChessPosition(myPosition.getRow()+dir, myPosition.getColumn()-1),
-                    null));
-        }
-        if(rightPawn != null
-                && rightPawn.getPieceType() == PieceType.PAWN
-                && rightPawn.getTeamColor() != piece.getTeamColor()
-                && rightPawn.getCanPassant()){
-            validMoves.add(new ChessMove(myPosition,
-                    new ChessPosition(myPosition.getRow()+dir, myPosition.getColumn()+1),
-                    null));
+        // en passant, onto the square a white pawn skipped (row 3) for black and a black pawn skipped (row 6) for white
+        int target = board.enPassantSquare();
+        if(target >= 0 && target / 8 + 1 == (dir > 0 ? 6 : 3)
+                && (Bitboards.PAWN_ATTACKS[piece.getTeamColor().ordinal()][square] & (1L << target)) != 0){
+            moves.add(Move.encode(square, target, Move.CAPTURE | Move.EN_PASSANT));
         }
-
-
-        return validMoves;
     }
 
-    private List<ChessMove> promoteMoves(ChessPosition startPosition, ChessPosition endPosition) {
-        List<ChessMove> validMoves = new ArrayList<>();
+    private static void promoteMoves(int startSquare, int endSquare, int flags, IntMoveList moves) {
         for(PieceType promotion : PieceType.values()){
             if(promotion == PieceType.KING || promotion == PieceType.PAWN) {continue;}
-            validMoves.add(new ChessMove(startPosition, endPosition, promotion));
+            moves.add(Move.encode(startSquare, endSquare, promotion, flags));
         }
-        return validMoves;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return (color == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
     }
 }
@@ -0,0 +1,62 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a piece with the same field names reflection used, {"pieceColor":"WHITE","type":"KING","hasMoved":false},
+ * and reads it back without reflection, including the canBePassanted flag of older saves.
+ * <p>
+ * Boards written by {@link ChessBoardAdapter} do not contain piece objects; this shape is only used for pieces
+ * serialized on their own and for reading boards saved in the legacy squares shape.
+ */
+final class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
+
+    @Override
+    public void write(JsonWriter out, ChessPiece piece) throws IOException {
+        if(piece == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("pieceColor").value(piece.getTeamColor().name());
+        out.name("type").value(piece.getPieceType().name());
+        out.name("hasMoved").value(piece.getHasMoved());
+        out.endObject();
+    }
+
+    @Override
+    public ChessPiece read(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        boolean hasMoved = false;
+        boolean canBePassanted = false;
+        in.beginObject();
+        while(in.hasNext()){
+            switch (in.nextName()) {
+                case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                case "hasMoved" -> hasMoved = in.nextBoolean();
+                case "canBePassanted" -> canBePassanted = in.nextBoolean();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if(color == null || type == null) {throw new JsonParseException("Chess piece needs a color and a type at " + in.getPath());}
+
+        ChessPiece piece = new ChessPiece(color, type);
+        piece.setHasMoved(hasMoved);
+        piece.canBePassanted = canBePassanted;
+        return piece;
+    }
+}
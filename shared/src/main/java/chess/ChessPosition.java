@@ -10,6 +10,13 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    // One shared instance per square, indexed as in Bitboards
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for(int square = 0; square < 64; square++) {SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);}
+    }
+
     private final int row;
     private final int col;
 
@@ -18,6 +25,28 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a square instead of allocating one. Positions are immutable and compare by
+     * value, so a shared instance behaves exactly like a new one.
+     *
+     * @return the canonical position, or a new one if the row or column is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if(!isOnBoard(row, col)) {return new ChessPosition(row, col);}
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @return True if this position is one of the 64 squares of the board
+     */
+    public boolean isOnBoard() {
+        return isOnBoard(row, col);
+    }
+
+    private static boolean isOnBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,167 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation: piece placement, side to move, castling rights,
+ * en passant target, halfmove clock and fullmove number, e.g.
+ * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1".
+ * <p>
+ * Castling rights are not stored on the board; a right exists while the king and that rook are unmoved on their
+ * starting squares. Reading a record therefore marks every king and rook as moved unless a right needs it not to.
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * Sets up a game from a FEN record. Only the placement field is required; missing fields default to white to
+     * move, no castling, no en passant target and the counters of a new game.
+     *
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static ChessGame read(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        ChessBoard board = readPlacement(fields[0]);
+
+        readCastling(board, fields.length > 2 ? fields[2] : "-");
+
+        String enPassant = fields.length > 3 ? fields[3] : "-";
+        if(!enPassant.equals("-")) {board.setEnPassantTarget(readSquare(enPassant));}
+
+        String turn = fields.length > 1 ? fields[1] : "w";
+        if(!turn.equals("w") && !turn.equals("b")) {throw new IllegalArgumentException("Unknown side to move in FEN: " + turn);}
+        ChessGame game = new ChessGame(turn.equals("b") ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE, board);
+        try {
+            if(fields.length > 4) {game.setHalfmoveClock(Integer.parseInt(fields[4]));}
+            if(fields.length > 5) {game.setFullmoveNumber(Integer.parseInt(fields[5]));}
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad move counter in FEN: " + fen, e);
+        }
+        return game;
+    }
+
+    /**
+     * Reads the placement field (the part before the first space) into a board with every king and rook marked
+     * as moved
+     */
+    public static ChessBoard readPlacement(String placement) {
+        ChessBoard board = new ChessBoard();
+        String[] rows = placement.split("/");
+        if(rows.length != 8) {throw new IllegalArgumentException("FEN placement needs 8 rows: " + placement);}
+
+        for(int i = 0; i < 8; i++){
+            int row = 8 - i;
+            int column = 1;
+            for(char c : rows[i].toCharArray()){
+                if(c >= '1' && c <= '8') {
+                    column += c - '0';
+                    continue;
+                }
+                if(column > 8) {throw new IllegalArgumentException("FEN row " + row + " has more than 8 squares: " + rows[i]);}
+                ChessPiece piece = new ChessPiece(Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK,
+                        pieceType(c));
+                piece.setHasMoved(piece.getPieceType() == ChessPiece.PieceType.KING
+                        || piece.getPieceType() == ChessPiece.PieceType.ROOK);
+                board.addPiece(ChessPosition.of(row, column++), piece);
+            }
+            if(column != 9) {throw new IllegalArgumentException("FEN row " + row + " does not cover 8 squares: " + rows[i]);}
+        }
+        return board;
+    }
+
+    /**
+     * Applies the castling field to a board read by {@link #readPlacement}, unmarking the kings and rooks each
+     * right needs
+     */
+    static void readCastling(ChessBoard board, String castling) {
+        for(char right : castling.toCharArray()){
+            if(right == '-') {continue;}
+            if("KQkq".indexOf(right) < 0) {throw new IllegalArgumentException("Unknown castling right in FEN: " + right);}
+            int homeRow = Character.isUpperCase(right) ? 1 : 8;
+            int rookColumn = (Character.toLowerCase(right) == 'k') ? 8 : 1;
+            unmove(board, ChessPosition.of(homeRow, 5), ChessPiece.PieceType.KING, right);
+            unmove(board, ChessPosition.of(homeRow, rookColumn), ChessPiece.PieceType.ROOK, right);
+        }
+    }
+
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Unknown piece in FEN: " + c);
+        };
+    }
+
+    private static void unmove(ChessBoard board, ChessPosition position, ChessPiece.PieceType type, char right) {
+        ChessPiece piece = board.getPiece(position);
+        if(piece == null || piece.getPieceType() != type) {
+            throw new IllegalArgumentException("Castling right " + right + " without a " + type + " on " + position);
+        }
+        piece.setHasMoved(false);
+    }
+
+    static ChessPosition readSquare(String square) {
+        if(square.length() != 2 || square.charAt(0) < 'a' || square.charAt(0) > 'h'
+                || square.charAt(1) < '1' || square.charAt(1) > '8') {
+            throw new IllegalArgumentException("Bad square in FEN: " + square);
+        }
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    /**
+     * @return the full FEN record of a game
+     */
+    public static String write(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder out = new StringBuilder(writePlacement(board));
+        out.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        out.append(writeCastling(board));
+
+        ChessPosition enPassant = board.getEnPassantTarget();
+        out.append(' ').append(enPassant == null ? "-" : enPassant.toString());
+        out.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return out.toString();
+    }
+
+    /**
+     * @return the castling field of a board, "-" if neither side can castle
+     */
+    static String writeCastling(ChessBoard board) {
+        StringBuilder out = new StringBuilder(4);
+        if(board.hasCastlingRight(ChessGame.TeamColor.WHITE, true)) {out.append('K');}
+        if(board.hasCastlingRight(ChessGame.TeamColor.WHITE, false)) {out.append('Q');}
+        if(board.hasCastlingRight(ChessGame.TeamColor.BLACK, true)) {out.append('k');}
+        if(board.hasCastlingRight(ChessGame.TeamColor.BLACK, false)) {out.append('q');}
+        return out.isEmpty() ? "-" : out.toString();
+    }
+
+    /**
+     * @return the placement field of a board, from row 8 down to row 1
+     */
+    public static String writePlacement(ChessBoard board) {
+        StringBuilder out = new StringBuilder();
+        for(int row = 8; row >= 1; row--){
+            int empty = 0;
+            for(int column = 1; column <= 8; column++){
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, column));
+                if(piece == null) {
+                    empty++;
+                    continue;
+                }
+                if(empty > 0) {out.append(empty);}
+                empty = 0;
+                out.append(piece);
+            }
+            if(empty > 0) {out.append(empty);}
+            if(row > 1) {out.append('/');}
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a game into 31 bytes or fewer for storage (a game can only exceed that on a board set up with more
+ * than 32 pieces), against several hundred bytes of JSON:
+ * <pre>
+ * version          1 byte
+ * occupancy        8 bytes, bit n set if square n holds a piece (square n is (row-1)*8 + (col-1))
+ * pieces           4 bits per set bit in square order, color &lt;&lt; 3 | type ordinal, two to a byte
+ * state            1 byte: bit 0 black to move, bit 1 game over, bits 2-5 castling rights K Q k q
+ * en passant       1 byte: target square, or 0xFF for none
+ * halfmove clock   2 bytes
+ * fullmove number  2 bytes
+ * </pre>
+ * Like FEN, only the moved flags castling depends on are kept.
+ */
+public final class GameCodec {
+
+    public static final int VERSION = 1;
+    /** Size of a game with a piece on every square */
+    public static final int MAX_BYTES = 1 + 8 + 32 + 1 + 1 + 2 + 2;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 1 << 1;
+    private static final int CASTLING_SHIFT = 2;
+    private static final String CASTLING_RIGHTS = "KQkq";
+    private static final int NO_EN_PASSANT = 0xFF;
+
+    private GameCodec() {
+    }
+
+    public static byte[] toBytes(ChessGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_BYTES);
+        encode(game, buffer);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a game written by this codec
+     */
+    public static ChessGame fromBytes(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Writes a game at the buffer's position, which must have {@link #MAX_BYTES} bytes remaining
+     */
+    public static void encode(ChessGame game, ByteBuffer buffer) {
+        ChessBoard board = game.getBoard();
+        long occupancy = board.occupancy();
+        buffer.put((byte) VERSION);
+        buffer.putLong(occupancy);
+
+        int packed = 0;
+        boolean half = false;
+        for(long remaining = occupancy; remaining != 0; remaining &= remaining - 1){
+            ChessPiece piece = board.getPiece(Long.numberOfTrailingZeros(remaining));
+            int nibble = piece.getTeamColor().ordinal() << 3 | piece.getPieceType().ordinal();
+            if(half) {
+                buffer.put((byte) (packed | nibble));
+            } else {
+                packed = nibble << 4;
+            }
+            half = !half;
+        }
+        if(half) {buffer.put((byte) packed);}
+
+        int state = (game.getTeamTurn() == ChessGame.TeamColor.BLACK) ? BLACK_TO_MOVE : 0;
+        if(game.getGameOver()) {state |= GAME_OVER;}
+        for(int i = 0; i < CASTLING_RIGHTS.length(); i++){
+            ChessGame.TeamColor color = (i < 2) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            if(board.hasCastlingRight(color, i % 2 == 0)) {state |= 1 << (CASTLING_SHIFT + i);}
+        }
+        buffer.put((byte) state);
+        buffer.put((byte) ((board.enPassantSquare() < 0) ? NO_EN_PASSANT : board.enPassantSquare()));
+        buffer.putShort((short) game.getHalfmoveClock());
+        buffer.putShort((short) game.getFullmoveNumber());
+    }
+
+    /**
+     * Reads a game from the buffer's position, leaving the buffer just past it
+     *
+     * @throws IllegalArgumentException if the bytes are not a game written by this codec
+     */
+    public static ChessGame decode(ByteBuffer buffer) {
+        try {
+            int version = buffer.get();
+            if(version != VERSION) {throw new IllegalArgumentException("Unsupported game encoding version " + version);}
+
+            ChessBoard board = new ChessBoard();
+            long occupancy = buffer.getLong();
+            int packed = 0;
+            boolean half = false;
+            for(long remaining = occupancy; remaining != 0; remaining &= remaining - 1){
+                if(!half) {packed = buffer.get();}
+                int nibble = half ? packed & 0xF : (packed >> 4) & 0xF;
+                half = !half;
+                if((nibble & 7) >= ChessPiece.PieceType.values().length) {
+                    throw new IllegalArgumentException("Unknown piece in game encoding: " + nibble);
+                }
+                ChessPiece piece = new ChessPiece(ChessGame.TeamColor.values()[nibble >> 3],
+                        ChessPiece.PieceType.values()[nibble & 7]);
+                piece.setHasMoved(piece.getPieceType() == ChessPiece.PieceType.KING
+                        || piece.getPieceType() == ChessPiece.PieceType.ROOK);
+                board.setPiece(Long.numberOfTrailingZeros(remaining), piece);
+            }
+
+            int state = buffer.get();
+            StringBuilder castling = new StringBuilder(4);
+            for(int i = 0; i < CASTLING_RIGHTS.length(); i++){
+                if((state & 1 << (CASTLING_SHIFT + i)) != 0) {castling.append(CASTLING_RIGHTS.charAt(i));}
+            }
+            Fen.readCastling(board, castling.toString());
+
+            int enPassant = buffer.get() & 0xFF;
+            if(enPassant != NO_EN_PASSANT) {
+                if(enPassant >= 64) {throw new IllegalArgumentException("Bad en passant square in game encoding: " + enPassant);}
+                board.setEnPassantSquare(enPassant);
+            }
+
+            ChessGame game = new ChessGame(((state & BLACK_TO_MOVE) != 0) ? ChessGame.TeamColor.BLACK
+                    : ChessGame.TeamColor.WHITE, board);
+            game.setGameOver((state & GAME_OVER) != 0);
+            game.setHalfmoveClock(buffer.getShort() & 0xFFFF);
+            game.setFullmoveNumber(buffer.getShort() & 0xFFFF);
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Game encoding is truncated", e);
+        }
+    }
+}
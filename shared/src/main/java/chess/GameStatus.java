@@ -0,0 +1,24 @@
+package chess;
+
+/**
+ * Where a game stands for the side to move, as computed by {@link ChessGame#getStatus()}
+ *
+ * @param state          whether the side to move is in check and whether it has any legal move
+ * @param legalMoveCount number of legal moves the side to move has
+ */
+public record GameStatus(State state, int legalMoveCount) {
+
+    public enum State {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
+    /**
+     * @return True for checkmate and stalemate, after which no move can be made
+     */
+    public boolean isFinal() {
+        return state == State.CHECKMATE || state == State.STALEMATE;
+    }
+}
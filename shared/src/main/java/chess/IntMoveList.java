@@ -0,0 +1,80 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of {@link Move}-encoded moves backed by an int array. Clearing keeps the array, so one list can
+ * be reused for every position without allocating.
+ */
+public final class IntMoveList {
+
+    // Enough for any legal position, so generation normally never grows the array
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public IntMoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntMoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if(size == moves.length) {moves = Arrays.copyOf(moves, moves.length * 2);}
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if(index >= size) {throw new IndexOutOfBoundsException(index);}
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        if(index >= size) {throw new IndexOutOfBoundsException(index);}
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from the given index on, for filtering a list in place
+     */
+    public void truncate(int newSize) {
+        if(newSize > size) {throw new IndexOutOfBoundsException(newSize);}
+        size = newSize;
+    }
+
+    /**
+     * @return true if the list holds the move, ignoring flags
+     */
+    public boolean contains(int move) {
+        for(int i = 0; i < size; i++){
+            if(Move.withoutFlags(moves[i]) == Move.withoutFlags(move)) {return true;}
+        }
+        return false;
+    }
+
+    /**
+     * @return the moves as ChessMove objects, for the public collection-based API
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> out = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {out.add(Move.toChessMove(moves[i]));}
+        return out;
+    }
+}
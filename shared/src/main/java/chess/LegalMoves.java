@@ -0,0 +1,90 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Every legal move of one side in a position, generated in one pass and grouped by start square so the moves of
+ * a single piece can be read without generating again. Instances never change once built.
+ *
+ * @see ChessGame#getLegalMoves()
+ */
+public final class LegalMoves {
+
+    private final IntMoveList moves = new IntMoveList();
+    // The moves starting on square s are at indexes squareStart[s] up to squareStart[s + 1]
+    private final int[] squareStart = new int[65];
+    private final boolean inCheck;
+
+    LegalMoves(ChessBoard board, ChessGame.TeamColor color) {
+        MoveGenerator generator = new MoveGenerator(board, color);
+        long own = board.occupancy(color);
+        for(int square = 0; square < 64; square++){
+            squareStart[square] = moves.size();
+            if((own & (1L << square)) != 0) {generator.generate(square, moves);}
+        }
+        squareStart[64] = moves.size();
+        inCheck = generator.isInCheck();
+    }
+
+    public int size() {
+        return moves.size();
+    }
+
+    public boolean isEmpty() {
+        return moves.isEmpty();
+    }
+
+    /**
+     * @return True if the side these moves belong to is in check
+     */
+    public boolean isInCheck() {
+        return inCheck;
+    }
+
+    /**
+     * @return the move at an index, {@link Move}-encoded
+     */
+    public int get(int index) {
+        return moves.get(index);
+    }
+
+    /**
+     * @return every move, as ChessMove objects
+     */
+    public Collection<ChessMove> getMoves() {
+        return moves.toChessMoves();
+    }
+
+    /**
+     * @return the moves of the piece on a square, empty if it has none or the square holds no piece of this side
+     */
+    public Collection<ChessMove> from(ChessPosition startPosition) {
+        int square = Bitboards.square(startPosition);
+        List<ChessMove> out = new ArrayList<>(squareStart[square + 1] - squareStart[square]);
+        for(int i = squareStart[square]; i < squareStart[square + 1]; i++) {out.add(Move.toChessMove(moves.get(i)));}
+        return out;
+    }
+
+    /**
+     * @return the number of moves of the piece on a square
+     */
+    public int countFrom(ChessPosition startPosition) {
+        int square = Bitboards.square(startPosition);
+        return squareStart[square + 1] - squareStart[square];
+    }
+
+    /**
+     * @return True if the move is legal, looking only at the moves of its start square
+     */
+    public boolean contains(ChessMove move) {
+        if(!move.isOnBoard()) {return false;}
+        int encoded = Move.encode(move);
+        int square = Move.from(encoded);
+        for(int i = squareStart[square]; i < squareStart[square + 1]; i++){
+            if(Move.withoutFlags(moves.get(i)) == encoded) {return true;}
+        }
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+package chess;
+
+/**
+ * Packs a move into a single int so move generation can fill primitive lists instead of allocating a
+ * {@link ChessMove} and two {@link ChessPosition}s per move.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (numbered as in {@link Bitboards}), bits 12-14 the
+ * promotion piece (0 for none, otherwise the piece type ordinal plus one) and the bits above that the flags.
+ * Flags describe the move for callers that want them; playing a move only needs the squares and promotion.
+ */
+public final class Move {
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int FLAG_MASK = CAPTURE | DOUBLE_PUSH | EN_PASSANT | CASTLE;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @param promotion piece type a pawn promotes to, or null
+     * @param flags     any of {@link #CAPTURE}, {@link #DOUBLE_PUSH}, {@link #EN_PASSANT} and {@link #CASTLE}
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = (promotion == null) ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << PROMOTION_SHIFT) | flags;
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    /**
+     * Encodes a move without flags, which is enough to play it
+     *
+     * @throws IllegalArgumentException if either position is off the board, since its square would spill into
+     *                                  the neighbouring bits and read back as a different move
+     */
+    public static int encode(ChessMove move) {
+        if(!move.isOnBoard()) {
+            throw new IllegalArgumentException("Move is off the board: " + move);
+        }
+        return encode(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the piece type a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return (promotionBits == 0) ? null : PIECE_TYPES[promotionBits - 1];
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return the move with its flags cleared, for comparing moves the way {@link ChessMove#equals} does
+     */
+    public static int withoutFlags(int move) {
+        return move & ~FLAG_MASK;
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+}
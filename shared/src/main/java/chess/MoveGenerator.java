@@ -0,0 +1,158 @@
+package chess;
+
+/**
+ * Generates only legal moves for one side of a position, without playing any of them.
+ * <p>
+ * The pieces giving check and the pieces pinned to the king are found once when the generator is created. A move
+ * is then legal when it captures or blocks the single checker (or the king steps out of check), and a pinned
+ * piece stays on the line through its king. King moves are checked by looking outward from the destination with
+ * the king lifted off the board. En passant, which removes two pawns from a row at once and so can uncover a
+ * check no pin covers, is checked against the occupancy it leaves behind.
+ */
+public final class MoveGenerator {
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor color;
+    private final ChessGame.TeamColor opponent;
+    private final int kingSquare;
+    private final long checkers;
+    // Squares a non-king move must end on: anywhere when not in check, the checker or a blocking square in
+    // single check, nowhere in double check
+    private final long checkMask;
+    private final long pinned;
+
+    /**
+     * @param color the side whose moves are generated, whether or not it is that side's turn
+     */
+    public MoveGenerator(ChessBoard board, ChessGame.TeamColor color) {
+        this.board = board;
+        this.color = color;
+        this.opponent = (color == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        this.kingSquare = board.kingSquare(color);
+
+        if(kingSquare < 0) {
+            // Without a king nothing can be left in check
+            checkers = 0;
+            checkMask = -1L;
+            pinned = 0;
+            return;
+        }
+
+        long occupied = board.occupancy();
+        checkers = board.attackers(kingSquare, opponent, occupied);
+        checkMask = switch (Long.bitCount(checkers)) {
+            case 0 -> -1L;
+            case 1 -> checkers | Bitboards.BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+            default -> 0L;
+        };
+
+        // Enemy sliders lined up with the king through exactly one friendly piece pin that piece
+        long queens = board.pieces(opponent, ChessPiece.PieceType.QUEEN);
+        long snipers = (SlidingAttacks.rookAttacks(kingSquare, 0L) & (board.pieces(opponent, ChessPiece.PieceType.ROOK) | queens))
+                | (SlidingAttacks.bishopAttacks(kingSquare, 0L) & (board.pieces(opponent, ChessPiece.PieceType.BISHOP) | queens));
+        long pinnedPieces = 0;
+        for(; snipers != 0; snipers &= snipers - 1){
+            long blockers = Bitboards.BETWEEN[kingSquare][Long.numberOfTrailingZeros(snipers)] & occupied;
+            if(Long.bitCount(blockers) == 1) {pinnedPieces |= blockers & board.occupancy(color);}
+        }
+        pinned = pinnedPieces;
+    }
+
+    public MoveGenerator(ChessGame game) {
+        this(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * @return True if the side's king is attacked
+     */
+    public boolean isInCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * @return mask of the enemy pieces attacking the king
+     */
+    public long getCheckers() {
+        return checkers;
+    }
+
+    /**
+     * Adds every legal move of the side to the list
+     */
+    public void generate(IntMoveList moves) {
+        for(long pieces = board.occupancy(color); pieces != 0; pieces &= pieces - 1){
+            generate(Long.numberOfTrailingZeros(pieces), moves);
+        }
+    }
+
+    /**
+     * Adds the legal moves of the piece on a square to the list; nothing is added if the square does not hold
+     * one of the side's pieces
+     */
+    public void generate(ChessPosition position, IntMoveList moves) {
+        generate(Bitboards.square(position), moves);
+    }
+
+    void generate(int square, IntMoveList moves) {
+        ChessPiece piece = board.getPiece(square);
+        if(piece == null || piece.getTeamColor() != color) {return;}
+
+        boolean isKing = square == kingSquare;
+        if(!isKing && checkMask == 0) {return;}
+
+        long allowed = isKing ? -1L : checkMask;
+        if((pinned & (1L << square)) != 0) {allowed &= Bitboards.LINE[kingSquare][square];}
+
+        int first = moves.size();
+        piece.pieceMoves(board, square, allowed, moves);
+        if(kingSquare < 0) {return;}
+
+        int kept = first;
+        for(int i = first; i < moves.size(); i++){
+            int move = moves.get(i);
+            boolean legal;
+            if(Move.hasFlag(move, Move.CASTLE)) {legal = isCastleLegal(move);}
+            else if(isKing) {legal = board.attackers(Move.to(move), opponent, board.occupancy() & ~(1L << square)) == 0;}
+            else if(Move.hasFlag(move, Move.EN_PASSANT)) {legal = isEnPassantLegal(move);}
+            else {legal = true;}
+
+            if(legal) {moves.set(kept++, move);}
+        }
+        moves.truncate(kept);
+    }
+
+    /**
+     * @return True if the side has at least one legal move, stopping at the first piece that has one
+     */
+    public boolean hasLegalMove() {
+        IntMoveList moves = new IntMoveList();
+        for(long pieces = board.occupancy(color); pieces != 0; pieces &= pieces - 1){
+            generate(Long.numberOfTrailingZeros(pieces), moves);
+            if(!moves.isEmpty()) {return true;}
+        }
+        return false;
+    }
+
+    /**
+     * A king may not castle out of, through or into check
+     */
+    boolean isCastleLegal(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int delta = (from < to) ? 1 : -1;
+        long occupied = board.occupancy();
+
+        for(int square = from; square != to + delta; square += delta){
+            if(board.attackers(square, opponent, occupied) != 0) {return false;}
+        }
+        return true;
+    }
+
+    private boolean isEnPassantLegal(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        long captured = 1L << (from - from % 8 + to % 8);
+        long occupied = (board.occupancy() & ~(1L << from) & ~captured) | (1L << to);
+        return (board.attackers(kingSquare, opponent, occupied) & ~captured) == 0;
+    }
+}
@@ -0,0 +1,21 @@
+package chess;
+
+/**
+ * Everything needed to take back one move made on a {@link ChessGame}.
+ * <p>
+ * Castling rights live in the hasMoved flags of kings and rooks, so only the moved piece's flag is kept; the
+ * en passant chance is the board's en passant target, which every move replaces.
+ *
+ * @param move             the {@link Move}-encoded move
+ * @param turn             the team whose turn it was before the move
+ * @param movedPiece       the piece that moved, before any promotion
+ * @param movedHadMoved    whether the moved piece had moved before this move, restored with it
+ * @param capturedPiece    the piece taken by the move, or null
+ * @param capturedSquare   where the captured piece stood, which differs from the end square for en passant
+ * @param enPassantSquare  the board's en passant target square before the move, or -1
+ * @param halfmoveClock    the game's halfmove clock before the move
+ */
+record MoveUndo(int move, ChessGame.TeamColor turn, ChessPiece movedPiece, boolean movedHadMoved,
+                ChessPiece capturedPiece, int capturedSquare, int enPassantSquare,
+                int halfmoveClock) {
+}
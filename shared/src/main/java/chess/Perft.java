@@ -0,0 +1,201 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf positions of the legal move tree (perft), for checking move generation against known counts
+ * and for measuring its speed.
+ * <p>
+ * Run with a position name (or FEN in quotes) and a depth, and optionally "divide" to print the count below
+ * each root move, or "parallel [threads] [split depth]" to count on a fork/join pool. With no arguments every
+ * {@link PerftPosition} is checked at a depth that runs in seconds.
+ */
+public final class Perft {
+
+    private static final long QUICK_CHECK_NODES = 1_000_000;
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reached after exactly depth plies. The game is walked with
+     * make/unmake and is left as it was found.
+     *
+     * @param game  the position to count from, with the side to move taken from its turn
+     * @param depth number of plies to look ahead
+     * @return number of leaf positions
+     */
+    public static long perft(ChessGame game, int depth) {
+        IntMoveList[] lists = new IntMoveList[Math.max(depth, 1)];
+        for(int i = 0; i < lists.length; i++) {lists[i] = new IntMoveList();}
+        return perft(game, depth, lists);
+    }
+
+    // One move list per remaining depth, reused for every position at that depth
+    private static long perft(ChessGame game, int depth, IntMoveList[] lists) {
+        if(depth == 0) {return 1;}
+
+        IntMoveList moves = lists[depth - 1];
+        legalMoves(game, moves);
+        if(depth == 1) {return moves.size();}
+
+        long nodes = 0;
+        for(int i = 0; i < moves.size(); i++){
+            game.applyMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Splits a perft count by root move, which is how a wrong total is narrowed down to the move that
+     * differs from a reference engine
+     *
+     * @return node count below each legal root move, ordered by move
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        List<ChessMove> moves = legalMoves(game);
+        moves.sort(Comparator.comparing(ChessMove::toString)
+                .thenComparing(move -> String.valueOf(move.getPromotionPiece())));
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for(ChessMove move : moves){
+            game.applyMove(move);
+            counts.put(move, perft(game, depth - 1));
+            game.unmakeMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the same positions as {@link #perft} on a fork/join pool. The moves of the first splitDepth plies
+     * each become a task working on its own copy of the game, and everything below is counted sequentially.
+     * The game passed in is only read.
+     *
+     * @param parallelism number of worker threads
+     * @param splitDepth  how many plies to split into tasks; 1 splits the root moves, 2 also splits their replies
+     * @return number of leaf positions, identical to {@link #perft(ChessGame, int)}
+     */
+    public static long parallelPerft(ChessGame game, int depth, int parallelism, int splitDepth) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new PerftTask(new ChessGame(game), depth, splitDepth));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final int splitDepth;
+
+        PerftTask(ChessGame game, int depth, int splitDepth) {
+            this.game = game;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected Long compute() {
+            if(splitDepth == 0 || depth <= 1) {return perft(game, depth);}
+
+            List<PerftTask> tasks = new ArrayList<>();
+            for(ChessMove move : legalMoves(game)){
+                ChessGame child = new ChessGame(game);
+                child.applyMove(move);
+                tasks.add(new PerftTask(child, depth - 1, splitDepth - 1));
+            }
+            long nodes = 0;
+            for(PerftTask task : invokeAll(tasks)) {nodes += task.join();}
+            return nodes;
+        }
+    }
+
+    static List<ChessMove> legalMoves(ChessGame game) {
+        IntMoveList moves = new IntMoveList();
+        legalMoves(game, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Replaces the contents of the list with every legal move of the side to move
+     */
+    static void legalMoves(ChessGame game, IntMoveList moves) {
+        moves.clear();
+        new MoveGenerator(game).generate(moves);
+    }
+
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            boolean passed = true;
+            for(PerftPosition position : PerftPosition.values()){
+                int depth = 1;
+                while(depth < position.getMaxDepth() && position.getNodes(depth + 1) <= QUICK_CHECK_NODES) {depth++;}
+                passed &= run(position.name(), position.newGame(), depth, position.getNodes(depth));
+            }
+            System.exit(passed ? 0 : 1);
+        }
+
+        if(args.length < 2) {
+            System.out.println("Usage: Perft [<position name | \"fen\"> <depth> [divide | parallel [threads] [split depth]]]");
+            System.exit(2);
+        }
+
+        int depth = Integer.parseInt(args[1]);
+        ChessGame game;
+        long expected = -1;
+        String name = args[0];
+        try {
+            PerftPosition position = PerftPosition.valueOf(name.toUpperCase());
+            game = position.newGame();
+            if(depth <= position.getMaxDepth()) {expected = position.getNodes(depth);}
+        } catch (IllegalArgumentException e) {
+            game = Fen.read(name);
+        }
+
+        if(args.length > 2 && args[2].equalsIgnoreCase("divide")) {
+            long total = 0;
+            for(Map.Entry<ChessMove, Long> entry : divide(game, depth).entrySet()){
+                ChessMove move = entry.getKey();
+                String promotion = (move.getPromotionPiece() == null) ? "" : "=" + move.getPromotionPiece();
+                System.out.println(move + promotion + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println("Total: " + total);
+            return;
+        }
+
+        int threads = 1;
+        int splitDepth = 0;
+        if(args.length > 2 && args[2].equalsIgnoreCase("parallel")) {
+            threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            splitDepth = (args.length > 4) ? Integer.parseInt(args[4]) : 1;
+            name += String.format(" (%d threads)", threads);
+        }
+        System.exit(run(name, game, depth, expected, threads, splitDepth) ? 0 : 1);
+    }
+
+    private static boolean run(String name, ChessGame game, int depth, long expected) {
+        return run(name, game, depth, expected, 1, 0);
+    }
+
+    private static boolean run(String name, ChessGame game, int depth, long expected, int threads, int splitDepth) {
+        long start = System.nanoTime();
+        long nodes = (threads > 1) ? parallelPerft(game, depth, threads, splitDepth) : perft(game, depth);
+        long nanos = Math.max(System.nanoTime() - start, 1);
+
+        boolean passed = expected < 0 || nodes == expected;
+        System.out.printf("%-24s depth %d: %,14d nodes  %8.3fs  %,12d nodes/s%s%n", name, depth, nodes,
+                nanos / 1e9, nodes * 1_000_000_000L / nanos,
+                expected < 0 ? "" : passed ? "  ok" : String.format("  FAILED (expected %,d)", expected));
+        return passed;
+    }
+}
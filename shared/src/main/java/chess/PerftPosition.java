@@ -0,0 +1,63 @@
+package chess;
+
+/**
+ * Reference positions with known perft node counts, used to check move generation against other engines.
+ * <p>
+ * The standard positions come from the Chess Programming Wiki perft results; the single-depth positions each
+ * catch a specific castling, en passant or pin bug that the standard ones reach too deep to isolate.
+ */
+public enum PerftPosition {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20, 400, 8_902, 197_281, 4_865_609, 119_060_324),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48, 2_039, 97_862, 4_085_603, 193_690_690),
+    POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191, 2_812, 43_238, 674_624, 11_030_083),
+    POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6, 264, 9_467, 422_333, 15_833_292),
+    POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44, 1_486, 62_379, 2_103_487, 89_941_194),
+    POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46, 2_079, 89_890, 3_894_594, 164_075_551),
+    CASTLE_THROUGH_ATTACK("r6r/1b2k1bq/8/8/7B/8/8/R3K2R b KQ - 3 2", 8),
+    EN_PASSANT_OUT_OF_CHECK("8/8/8/2k5/2pP4/8/B7/4K3 b - d3 0 3", 8),
+    KNIGHT_RIM("r1bqkbnr/pppppppp/n7/8/8/P7/1PPPPPPP/RNBQKBNR w KQkq - 2 2", 19),
+    QUEEN_CHECK_BLOCK("r3k2r/p1pp1pb1/bn2Qnp1/2qPN3/1p2P3/2N5/PPPB1PPP/R3K2R b KQkq - 3 2", 5),
+    CASTLED_QUEENSIDE("2kr3r/p1ppqpb1/bn2Qnp1/3PN3/1p2P3/2N5/PPPBBPPP/R3K2R b KQ - 3 2", 44),
+    PROMOTED_PAWN_CHECK("rnb2k1r/pp1Pbppp/2p5/q7/2B5/8/PPPQNnPP/RNB1K2R w KQ - 3 9", 39),
+    PAWN_BLOCKED_KING("2r5/3pk3/8/2P5/8/2K5/8/8 w - - 5 4", 9);
+
+    private final String fen;
+    private final long[] nodes;
+
+    PerftPosition(String fen, long... nodes) {
+        this.fen = fen;
+        this.nodes = nodes;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    /**
+     * @return the deepest depth with a known node count
+     */
+    public int getMaxDepth() {
+        return nodes.length;
+    }
+
+    /**
+     * @param depth number of plies, from 1 to {@link #getMaxDepth()}
+     * @return the number of leaf positions at that depth
+     */
+    public long getNodes(int depth) {
+        return nodes[depth - 1];
+    }
+
+    /**
+     * @return a new game set up at this position
+     */
+    public ChessGame newGame() {
+        return Fen.read(fen);
+    }
+}
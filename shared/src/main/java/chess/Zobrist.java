@@ -0,0 +1,34 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of chess positions.
+ * <p>
+ * A position's key is the XOR of one key per piece on its square, plus keys for the side to move, each castling
+ * right and the file of an en passant chance. The keys come from a fixed seed, so a position hashes the same in
+ * every JVM and keys can be stored or shared between the client and server.
+ */
+public final class Zobrist {
+
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+    /**
+     * Indexed by color ordinal * 2, plus 1 for the queenside (column 1) rook
+     */
+    static final long[] CASTLING = new long[4];
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(240);
+        for(long[] squareKeys : PIECE_SQUARE){
+            for(int square = 0; square < 64; square++) {squareKeys[square] = random.nextLong();}
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        for(int i = 0; i < CASTLING.length; i++) {CASTLING[i] = random.nextLong();}
+        for(int i = 0; i < EN_PASSANT_FILE.length; i++) {EN_PASSANT_FILE[i] = random.nextLong();}
+    }
+
+    private Zobrist() {
+    }
+}
@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * The lobby's view of a game: who is playing and what it is called, without the board
+ */
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+
+    public static GameSummary of(GameData data) {
+        return new GameSummary(data.gameID(), data.whiteUsername(), data.blackUsername(), data.gameName());
+    }
+}
@@ -0,0 +1,61 @@
+package serialization;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+
+import java.io.IOException;
+
+/**
+ * The one Gson instance shared by the server and client, built once instead of on every request.
+ * <p>
+ * Gson is thread-safe and caches the adapter it builds for each type, so every caller after the first reuses
+ * that work. ChessGame, ChessBoard and ChessPiece bring their own streaming adapters through @JsonAdapter.
+ */
+public final class Serializer {
+
+    public static final Gson GSON = new GsonBuilder().create();
+
+    // Looked up once so saving and loading a game skips the per-call type cache lookup
+    private static final TypeAdapter<ChessGame> GAME = GSON.getAdapter(ChessGame.class);
+
+    private Serializer() {
+    }
+
+    public static String toJson(Object object) {
+        return GSON.toJson(object);
+    }
+
+    /**
+     * @throws com.google.gson.JsonSyntaxException if the json is malformed or does not match the class
+     */
+    public static <T> T fromJson(String json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    /**
+     * Same as {@link #fromJson(String, Class)} for json that has already been parsed, so it is not parsed again
+     */
+    public static <T> T fromJson(JsonElement json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    public static String gameToJson(ChessGame game) {
+        return GAME.toJson(game);
+    }
+
+    /**
+     * @return the game, or null if json is null
+     */
+    public static ChessGame gameFromJson(String json) {
+        if(json == null) {return null;}
+        try {
+            return GAME.fromJson(json);
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CanonicalInstanceTests {
+
+    @Test
+    @DisplayName("Positions on the board are shared")
+    public void positions() {
+        ChessPosition position = ChessPosition.of(4, 5);
+
+        assertSame(position, ChessPosition.of(4, 5));
+        assertSame(position, Bitboards.position(Bitboards.square(4, 5)));
+        assertEquals(new ChessPosition(4, 5), position);
+        assertEquals(new ChessPosition(4, 5).hashCode(), position.hashCode());
+        assertEquals(new ChessPosition(0, 3), ChessPosition.of(0, 3));
+    }
+
+    @Test
+    @DisplayName("Moves are shared and equal to new ones")
+    public void moves() {
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+
+        assertSame(move, ChessMove.of(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        assertNotSame(move, ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.ROOK));
+        assertEquals(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN), move);
+        assertSame(move.getStartPosition(), ChessPosition.of(7, 1));
+    }
+
+    @Test
+    @DisplayName("Generated moves are shared")
+    public void generatedMoves() {
+        ChessGame game = new ChessGame();
+        ChessPosition knight = ChessPosition.of(1, 7);
+
+        ChessMove first = game.validMoves(knight).iterator().next();
+        assertSame(first, game.validMoves(knight).iterator().next());
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnPassantStateTests {
+
+    private static ChessMove move(String start, String end) {
+        return new ChessMove(position(start), position(end), null);
+    }
+
+    private static ChessPosition position(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    @Test
+    @DisplayName("Two-square pawn moves set the target for one turn")
+    public void targetLastsOneTurn() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2", "e4"));
+        assertEquals(position("e3"), game.getBoard().getEnPassantTarget());
+
+        game.makeMove(move("g8", "f6"));
+        assertNull(game.getBoard().getEnPassantTarget());
+
+        game.unmakeMove();
+        assertEquals(position("e3"), game.getBoard().getEnPassantTarget());
+    }
+
+    @Test
+    @DisplayName("Target survives serialization")
+    public void serialization() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2", "e4"));
+        game.makeMove(move("a7", "a6"));
+        game.makeMove(move("e4", "e5"));
+        game.makeMove(move("d7", "d5"));
+
+        ChessGame copy = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        assertEquals(position("d6"), copy.getBoard().getEnPassantTarget());
+        assertTrue(copy.validMoves(position("e5")).contains(move("e5", "d6")));
+    }
+
+    @Test
+    @DisplayName("Games saved with per-pawn flags still allow en passant")
+    public void legacyFlag() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2", "e4"));
+        game.makeMove(move("a7", "a6"));
+        game.makeMove(move("e4", "e5"));
+        game.makeMove(move("d7", "d5"));
+
+        // Older saves had no target and marked the pawn that moved two squares instead
+        JsonObject json = SerializationTests.legacyJson(game);
+        JsonObject board = json.getAsJsonObject("board");
+        board.remove("enPassantTarget");
+        board.getAsJsonArray("squares").get(4).getAsJsonArray().get(3).getAsJsonObject()
+                .addProperty("canBePassanted", true);
+
+        ChessGame legacy = new Gson().fromJson(json, ChessGame.class);
+        assertEquals(position("d6"), legacy.getBoard().getEnPassantTarget());
+        assertEquals(game.getZobristKey(), legacy.getZobristKey());
+        legacy.makeMove(move("e5", "d6"));
+        assertNull(legacy.getBoard().getPiece(position("d5")));
+    }
+}
@@ -0,0 +1,60 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+
+    private static ChessMove move(String start, String end) {
+        return new ChessMove(position(start), position(end), null);
+    }
+
+    private static ChessPosition position(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Reference positions round trip")
+    public void roundTrip(PerftPosition position) {
+        assertEquals(position.getFen(), Fen.write(Fen.read(position.getFen())));
+    }
+
+    @Test
+    @DisplayName("New game writes the start position")
+    public void startPosition() {
+        assertEquals(Fen.START, Fen.write(new ChessGame()));
+        assertEquals(new ChessGame(), Fen.read(Fen.START));
+    }
+
+    @Test
+    @DisplayName("Moves update en passant, castling and counters")
+    public void afterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2", "e4"));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", Fen.write(game));
+
+        game.makeMove(move("g8", "f6"));
+        game.makeMove(move("e1", "e2"));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", Fen.write(game));
+
+        game.unmakeMove();
+        game.unmakeMove();
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", Fen.write(game));
+        assertEquals(game.getZobristKey(), Fen.read(Fen.write(game)).getZobristKey());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"8/8/8/8/8/8/8 w - - 0 1", "9/8/8/8/8/8/8/8 w - - 0 1", "rnbqkbnrr/8/8/8/8/8/8/8 w - - 0 1",
+            "8/8/8/8/8/8/8/7x w - - 0 1", "8/8/8/8/8/8/8/8 x - - 0 1", "8/8/8/8/8/8/8/8 w K - 0 1",
+            "8/8/8/8/8/8/8/8 w - e9 0 1", "8/8/8/8/8/8/8/8 w - - zero 1"})
+    @DisplayName("Malformed records are rejected")
+    public void malformed(String fen) {
+        assertThrows(IllegalArgumentException.class, () -> Fen.read(fen));
+    }
+}
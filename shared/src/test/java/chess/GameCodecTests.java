@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTests {
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Reference positions round trip")
+    public void roundTrip(PerftPosition position) {
+        ChessGame game = position.newGame();
+        byte[] bytes = GameCodec.toBytes(game);
+        ChessGame copy = GameCodec.fromBytes(bytes);
+
+        assertTrue(bytes.length <= 31, "Encoded in " + bytes.length + " bytes");
+        assertEquals(game, copy);
+        assertEquals(position.getFen(), Fen.write(copy));
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Game state survives a round trip")
+    public void gameState() throws InvalidMoveException {
+        ChessGame game = Fen.read("r3k2r/8/8/8/3pP3/8/8/R3K2R b Kq e3 300 1000");
+        game.setGameOver(true);
+
+        ChessGame copy = GameCodec.fromBytes(GameCodec.toBytes(game));
+        assertEquals(Fen.write(game), Fen.write(copy));
+        assertTrue(copy.getGameOver());
+        assertTrue(copy.validMoves(ChessPosition.of(4, 4)).contains(
+                new ChessMove(ChessPosition.of(4, 4), ChessPosition.of(3, 5), null)));
+    }
+
+    @Test
+    @DisplayName("Games can be packed one after another in a buffer")
+    public void sharedBuffer() {
+        ChessGame first = new ChessGame();
+        ChessGame second = PerftPosition.POSITION_3.newGame();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * GameCodec.MAX_BYTES);
+        GameCodec.encode(first, buffer);
+        GameCodec.encode(second, buffer);
+        buffer.flip();
+
+        assertEquals(first, GameCodec.decode(buffer));
+        assertEquals(second, GameCodec.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Bad encodings are rejected")
+    public void rejected() {
+        byte[] bytes = GameCodec.toBytes(new ChessGame());
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.fromBytes(Arrays.copyOf(bytes, 20)));
+
+        bytes[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.fromBytes(bytes));
+    }
+}
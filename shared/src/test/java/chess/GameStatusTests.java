@@ -0,0 +1,53 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusTests {
+
+    private static ChessMove move(String start, String end) {
+        return new ChessMove(position(start), position(end), null);
+    }
+
+    private static ChessPosition position(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    @Test
+    @DisplayName("Status follows the game")
+    public void statusAfterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(new GameStatus(GameStatus.State.ONGOING, 20), game.getStatus());
+
+        // Fool's mate
+        game.makeMove(move("f2", "f3"));
+        game.makeMove(move("e7", "e5"));
+        game.makeMove(move("g2", "g4"));
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+        game.makeMove(move("d8", "h4"));
+
+        assertEquals(new GameStatus(GameStatus.State.CHECKMATE, 0), game.getStatus());
+        assertTrue(game.getStatus().isFinal());
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+
+        game.unmakeMove();
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+    }
+
+    @Test
+    @DisplayName("Status is recomputed when the board is edited")
+    public void boardEdits() {
+        ChessGame game = Fen.read("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertEquals(new GameStatus(GameStatus.State.STALEMATE, 0), game.getStatus());
+        assertSame(game.getStatus(), game.getStatus());
+
+        game.getBoard().addPiece(position("f7"), null);
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+
+        game.getBoard().addPiece(position("h1"), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        assertEquals(new GameStatus(GameStatus.State.CHECK, 1), game.getStatus());
+    }
+}
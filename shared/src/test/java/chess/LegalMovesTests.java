@@ -0,0 +1,82 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMovesTests {
+
+    @ParameterizedTest
+    @EnumSource(value = PerftPosition.class, names = {"START", "KIWIPETE", "POSITION_4", "EN_PASSANT_OUT_OF_CHECK"})
+    @DisplayName("Per-square moves match validMoves")
+    public void matchesValidMoves(PerftPosition position) {
+        ChessGame game = position.newGame();
+        LegalMoves legalMoves = game.getLegalMoves();
+        assertEquals(position.getNodes(1), legalMoves.size());
+
+        int total = 0;
+        for(int square = 0; square < 64; square++){
+            ChessPosition start = Bitboards.position(square);
+            ChessPiece piece = game.getBoard().getPiece(start);
+            if(piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+                assertEquals(0, legalMoves.countFrom(start));
+                continue;
+            }
+            assertEquals(new HashSet<>(game.validMoves(start)), new HashSet<>(legalMoves.from(start)), "Moves from " + start);
+            for(ChessMove move : legalMoves.from(start)) {assertTrue(legalMoves.contains(move));}
+            total += legalMoves.countFrom(start);
+        }
+        assertEquals(legalMoves.size(), total);
+    }
+
+    @Test
+    @DisplayName("Legal moves are kept until the position changes")
+    public void cached() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        LegalMoves opening = game.getLegalMoves();
+        assertSame(opening, game.getLegalMoves());
+        assertFalse(opening.contains(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null)));
+
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertNotSame(opening, game.getLegalMoves());
+        assertTrue(game.getLegalMoves().contains(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null)));
+        assertEquals(20, game.getLegalMoves(ChessGame.TeamColor.BLACK).size());
+        assertEquals(30, game.getLegalMoves(ChessGame.TeamColor.WHITE).size());
+    }
+
+    @Test
+    @DisplayName("Setting a board drops cached legal moves")
+    public void setBoard() {
+        ChessGame game = new ChessGame();
+        LegalMoves opening = game.getLegalMoves();
+        game.setBoard(new ChessBoard(game.getBoard()));
+
+        assertNotSame(opening, game.getLegalMoves());
+        assertEquals(20, game.getLegalMoves().size());
+    }
+
+    @Test
+    @DisplayName("A king that moved away and back cannot castle from the cache")
+    public void castlingKey() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(ChessPosition.of(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        ChessGame game = new ChessGame(ChessGame.TeamColor.WHITE, board);
+        ChessMove castle = new ChessMove(ChessPosition.of(1, 4), ChessPosition.of(1, 2), null);
+        assertTrue(game.getLegalMoves().contains(castle));
+
+        game.applyMove(new ChessMove(ChessPosition.of(1, 4), ChessPosition.of(2, 4), null));
+        game.applyMove(new ChessMove(ChessPosition.of(8, 8), ChessPosition.of(8, 7), null));
+        game.applyMove(new ChessMove(ChessPosition.of(2, 4), ChessPosition.of(1, 4), null));
+        game.applyMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(8, 8), null));
+
+        assertFalse(game.getLegalMoves().contains(castle));
+        assertFalse(new ChessGame(game).getLegalMoves().contains(castle));
+    }
+}
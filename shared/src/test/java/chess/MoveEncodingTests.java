@@ -0,0 +1,89 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveEncodingTests {
+
+    private static ChessPosition position(String square) {
+        return new ChessPosition(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    @Test
+    @DisplayName("Encoding round trips every square and promotion")
+    public void roundTrip() {
+        for(int from = 0; from < 64; from++){
+            for(int to = 0; to < 64; to++){
+                for(ChessPiece.PieceType promotion : new ChessPiece.PieceType[]{null, ChessPiece.PieceType.QUEEN,
+                        ChessPiece.PieceType.KNIGHT}){
+                    ChessMove move = new ChessMove(Bitboards.position(from), Bitboards.position(to), promotion);
+                    int encoded = Move.encode(move);
+
+                    assertEquals(from, Move.from(encoded));
+                    assertEquals(to, Move.to(encoded));
+                    assertEquals(promotion, Move.promotion(encoded));
+                    assertEquals(move, Move.toChessMove(encoded));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Generated moves carry flags")
+    public void flags() {
+        ChessGame game = PerftPosition.KIWIPETE.newGame();
+        IntMoveList moves = new IntMoveList();
+
+        game.validMoves(position("e1"), moves);
+        int castles = 0;
+        for(int i = 0; i < moves.size(); i++) {if(Move.hasFlag(moves.get(i), Move.CASTLE)) {castles++;}}
+        assertEquals(2, castles);
+
+        moves.clear();
+        game.validMoves(position("a2"), moves);
+        assertTrue(moves.contains(Move.encode(8, 24, Move.DOUBLE_PUSH)));
+
+        moves.clear();
+        game.validMoves(position("e5"), moves);
+        for(int i = 0; i < moves.size(); i++){
+            boolean capture = game.getBoard().getPiece(Bitboards.position(Move.to(moves.get(i)))) != null;
+            assertEquals(capture, Move.hasFlag(moves.get(i), Move.CAPTURE), Move.toChessMove(moves.get(i)).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Int moves match the collection API")
+    public void matchesCollections() {
+        ChessGame game = PerftPosition.POSITION_4.newGame();
+        IntMoveList moves = new IntMoveList(1);
+        for(int square = 0; square < 64; square++){
+            ChessPosition position = Bitboards.position(square);
+            ChessPiece piece = game.getBoard().getPiece(position);
+            if(piece == null || piece.getTeamColor() != game.getTeamTurn()) {continue;}
+
+            moves.clear();
+            game.validMoves(position, moves);
+            assertEquals(new HashSet<>(game.validMoves(position)), new HashSet<>(moves.toChessMoves()),
+                    "Moves from " + position);
+        }
+    }
+
+    @Test
+    @DisplayName("Off-board moves are rejected instead of aliasing a legal move")
+    public void offBoard() throws InvalidMoveException {
+        ChessGame game = Fen.read("n6k/1P6/8/8/8/8/8/K7 w - - 0 1");
+        ChessMove bogus = new ChessMove(position("b7"), new ChessPosition(16, 1), ChessPiece.PieceType.QUEEN);
+
+        assertThrows(IllegalArgumentException.class, () -> Move.encode(bogus));
+        assertFalse(game.getLegalMoves().contains(bogus));
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(bogus));
+        assertEquals(ChessPiece.PieceType.PAWN, game.getBoard().getPiece(position("b7")).getPieceType());
+
+        game.makeMove(new ChessMove(position("b7"), position("a8"), ChessPiece.PieceType.BISHOP));
+        assertEquals(ChessPiece.PieceType.BISHOP, game.getBoard().getPiece(position("a8")).getPieceType());
+    }
+}
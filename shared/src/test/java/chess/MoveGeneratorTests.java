@@ -0,0 +1,93 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveGeneratorTests {
+
+    private static ChessPosition position(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    // The moves that do not leave the king attacked once played, found the slow way
+    private static Set<ChessMove> trialMoves(ChessGame game) {
+        Set<ChessMove> legal = new HashSet<>();
+        for(long pieces = game.getBoard().occupancy(game.getTeamTurn()); pieces != 0; pieces &= pieces - 1){
+            ChessPosition start = Bitboards.position(Long.numberOfTrailingZeros(pieces));
+            IntMoveList moves = new IntMoveList();
+            game.getBoard().getPiece(start).pieceMoves(game.getBoard(), start, moves);
+            for(int i = 0; i < moves.size(); i++){
+                int move = moves.get(i);
+                if(Move.hasFlag(move, Move.CASTLE)) {
+                    if(new MoveGenerator(game).isCastleLegal(move)) {legal.add(Move.toChessMove(move));}
+                    continue;
+                }
+                ChessGame.TeamColor mover = game.getTeamTurn();
+                game.applyMove(move);
+                if(!game.isInCheck(mover)) {legal.add(Move.toChessMove(move));}
+                game.unmakeMove();
+            }
+        }
+        return legal;
+    }
+
+    private static Set<ChessMove> generatedMoves(ChessGame game) {
+        IntMoveList moves = new IntMoveList();
+        new MoveGenerator(game).generate(moves);
+        Set<ChessMove> generated = new HashSet<>(moves.toChessMoves());
+        assertEquals(moves.size(), generated.size(), "Duplicate moves generated");
+        return generated;
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PerftPosition.class, names = {"KIWIPETE", "POSITION_3", "POSITION_4", "POSITION_5"})
+    @DisplayName("Generated moves match trial moves two plies deep")
+    public void matchesTrialMoves(PerftPosition position) {
+        ChessGame game = position.newGame();
+        assertEquals(trialMoves(game), generatedMoves(game));
+
+        IntMoveList rootMoves = new IntMoveList();
+        new MoveGenerator(game).generate(rootMoves);
+        for(int i = 0; i < rootMoves.size(); i++){
+            game.applyMove(rootMoves.get(i));
+            assertEquals(trialMoves(game), generatedMoves(game), "After " + Move.toChessMove(rootMoves.get(i)));
+            game.unmakeMove();
+        }
+    }
+
+    @Test
+    @DisplayName("En passant may not uncover a check along the row")
+    public void enPassantDiscoveredCheck() {
+        ChessGame game = Fen.read("8/8/8/KPp4r/8/8/8/4k3 w - c6 0 1");
+
+        Set<ChessMove> moves = generatedMoves(game);
+        assertFalse(moves.contains(new ChessMove(position("b5"), position("c6"), null)));
+        assertEquals(4, moves.size());
+    }
+
+    @Test
+    @DisplayName("Pinned pieces stay on the pin line and checks must be answered")
+    public void pinsAndChecks() {
+        // The bishop on d2 is pinned by the rook on d8
+        ChessGame game = Fen.read("3r3k/8/8/8/8/8/3B4/3K4 w - - 0 1");
+        MoveGenerator generator = new MoveGenerator(game);
+        assertFalse(generator.isInCheck());
+
+        IntMoveList moves = new IntMoveList();
+        generator.generate(position("d2"), moves);
+        assertTrue(moves.isEmpty());
+
+        game = Fen.read("3r3k/8/8/8/8/4n3/3B4/3K4 w - - 0 1");
+        generator = new MoveGenerator(game);
+        assertTrue(generator.isInCheck());
+        generator.generate(position("d2"), moves);
+        assertTrue(moves.isEmpty(), "A pinned piece cannot capture the checker");
+    }
+}
@@ -0,0 +1,49 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTests {
+
+    // Deep enough to reach castling, en passant and promotions in every reference position
+    private static final long MAX_TEST_NODES = 200_000;
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Reference node counts")
+    public void referenceCounts(PerftPosition position) {
+        ChessGame game = position.newGame();
+        long key = game.getZobristKey();
+        for(int depth = 1; depth <= position.getMaxDepth() && position.getNodes(depth) <= MAX_TEST_NODES; depth++){
+            assertEquals(position.getNodes(depth), Perft.perft(game, depth), position + " at depth " + depth);
+        }
+        assertEquals(key, game.getZobristKey(), "Perft did not restore the position");
+    }
+
+    @Test
+    @DisplayName("Divide sums to perft")
+    public void divide() {
+        Map<ChessMove, Long> counts = Perft.divide(PerftPosition.KIWIPETE.newGame(), 2);
+
+        assertEquals(48, counts.size());
+        assertEquals(PerftPosition.KIWIPETE.getNodes(2), counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    @DisplayName("Parallel perft matches sequential")
+    public void parallel(int splitDepth) {
+        ChessGame game = PerftPosition.KIWIPETE.newGame();
+        long key = game.getZobristKey();
+
+        assertEquals(PerftPosition.KIWIPETE.getNodes(3), Perft.parallelPerft(game, 3, 4, splitDepth));
+        assertEquals(key, game.getZobristKey(), "Parallel perft changed the game it was given");
+    }
+}
@@ -0,0 +1,146 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializationTests {
+
+    private final Gson gson = new Gson();
+
+    private static ChessMove move(String start, String end) {
+        return new ChessMove(position(start), position(end), null);
+    }
+
+    private static ChessPosition position(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    /**
+     * Builds the JSON reflection wrote for a game before the compact format: every square as null or a piece
+     * object, and no version
+     */
+    static JsonObject legacyJson(ChessGame game) {
+        JsonArray squares = new JsonArray();
+        for(int row = 1; row <= 8; row++){
+            JsonArray squareRow = new JsonArray();
+            for(int col = 1; col <= 8; col++){
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if(piece == null) {
+                    squareRow.add(JsonNull.INSTANCE);
+                    continue;
+                }
+                JsonObject pieceJson = new JsonObject();
+                pieceJson.addProperty("pieceColor", piece.getTeamColor().name());
+                pieceJson.addProperty("type", piece.getPieceType().name());
+                pieceJson.addProperty("hasMoved", piece.getHasMoved());
+                squareRow.add(pieceJson);
+            }
+            squares.add(squareRow);
+        }
+
+        JsonObject board = new JsonObject();
+        board.add("squares", squares);
+        ChessPosition target = game.getBoard().getEnPassantTarget();
+        if(target != null) {
+            JsonObject targetJson = new JsonObject();
+            targetJson.addProperty("row", target.getRow());
+            targetJson.addProperty("col", target.getColumn());
+            board.add("enPassantTarget", targetJson);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("teamTurn", game.getTeamTurn().name());
+        json.add("board", board);
+        json.addProperty("gameOver", game.getGameOver());
+        return json;
+    }
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Reference positions round trip")
+    public void roundTrip(PerftPosition position) {
+        ChessGame game = position.newGame();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+        assertEquals(game, copy);
+        assertEquals(position.getFen(), Fen.write(copy));
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Game state survives a round trip")
+    public void gameState() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2", "e4"));
+        game.makeMove(move("e7", "e5"));
+        game.makeMove(move("e1", "e2"));
+        game.setGameOver(true);
+
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(ChessGame.TeamColor.BLACK, copy.getTeamTurn());
+        assertTrue(copy.getGameOver());
+        assertEquals(1, copy.getHalfmoveClock());
+        assertEquals(2, copy.getFullmoveNumber());
+        assertFalse(copy.getBoard().hasCastlingRight(ChessGame.TeamColor.WHITE, true));
+        assertTrue(copy.getBoard().hasCastlingRight(ChessGame.TeamColor.BLACK, false));
+    }
+
+    @Test
+    @DisplayName("Games are written compactly behind a version")
+    public void compactShape() {
+        ChessGame game = PerftPosition.KIWIPETE.newGame();
+        JsonObject json = gson.toJsonTree(game).getAsJsonObject();
+
+        assertEquals(2, json.get("version").getAsInt());
+        JsonObject board = json.getAsJsonObject("board");
+        assertEquals("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R", board.get("placement").getAsString());
+        assertEquals("KQkq", board.get("castling").getAsString());
+        assertFalse(board.has("squares"));
+        assertTrue(gson.toJson(game).length() * 5 < legacyJson(game).toString().length());
+    }
+
+    @Test
+    @DisplayName("Games saved in the legacy shape still load")
+    public void legacyShape() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2", "e4"));
+        game.makeMove(move("g8", "f6"));
+        game.makeMove(move("e1", "e2"));
+        game.makeMove(move("d7", "d5"));
+
+        ChessGame legacy = gson.fromJson(legacyJson(game), ChessGame.class);
+        assertEquals(game, legacy);
+        assertEquals(position("d6"), legacy.getBoard().getEnPassantTarget());
+        assertFalse(legacy.getBoard().hasCastlingRight(ChessGame.TeamColor.WHITE, false));
+        assertTrue(legacy.getBoard().hasCastlingRight(ChessGame.TeamColor.BLACK, true));
+    }
+
+    @Test
+    @DisplayName("Pieces round trip on their own")
+    public void piece() {
+        ChessPiece piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        piece.setHasMoved(true);
+
+        ChessPiece copy = gson.fromJson(gson.toJson(piece), ChessPiece.class);
+        assertEquals(piece, copy);
+        assertTrue(copy.getHasMoved());
+        assertNull(gson.fromJson("null", ChessPiece.class));
+    }
+
+    @Test
+    @DisplayName("Newer versions and bad boards are rejected")
+    public void rejected() {
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"version\":3}", ChessGame.class));
+        assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"version\":2,\"placement\":\"8/8/8\",\"castling\":\"-\"}", ChessBoard.class));
+    }
+}
@@ -0,0 +1,44 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingAttacksTests {
+
+    @Test
+    @DisplayName("Tables match ray walk")
+    public void tablesMatchRayWalk() {
+        Random random = new Random(240);
+        for(int i = 0; i < 2000; i++){
+            // sparse and dense boards both matter, so mix in a variable number of random words
+            long occupied = random.nextLong() & random.nextLong();
+            if(i % 2 == 0) {occupied &= random.nextLong();}
+            for(int square = 0; square < 64; square++){
+                assertEquals(SlidingAttacks.walkRookAttacks(square, occupied),
+                        SlidingAttacks.rookAttacks(square, occupied), "Rook attacks differ on square " + square);
+                assertEquals(SlidingAttacks.walkBishopAttacks(square, occupied),
+                        SlidingAttacks.bishopAttacks(square, occupied), "Bishop attacks differ on square " + square);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Empty board attacks")
+    public void emptyBoard() {
+        // rook on a1 sees the whole first rank and a-file, bishop on d4 sees both long diagonals through it
+        assertEquals(14, Long.bitCount(SlidingAttacks.rookAttacks(0, 0L)));
+        assertEquals(13, Long.bitCount(SlidingAttacks.bishopAttacks(Bitboards.square(4, 4), 0L)));
+        assertEquals(27, Long.bitCount(SlidingAttacks.queenAttacks(Bitboards.square(4, 4), 0L)));
+    }
+
+    @Test
+    @DisplayName("Table initialization within budget")
+    public void initWithinBudget() {
+        assertTrue(SlidingAttacks.initNanos() < SlidingAttacks.INIT_BUDGET_NANOS,
+                "Building slider tables took " + SlidingAttacks.initNanos() / 1_000_000 + "ms");
+    }
+}
@@ -0,0 +1,103 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnmakeMoveTests {
+
+    private static ChessMove move(String start, String end, ChessPiece.PieceType promotion) {
+        return new ChessMove(position(start), position(end), promotion);
+    }
+
+    private static ChessMove move(String start, String end) {
+        return move(start, end, null);
+    }
+
+    private static ChessPosition position(String square) {
+        return new ChessPosition(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    @Test
+    @DisplayName("Unmake restores board and turn")
+    public void unmakeSimpleMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessGame original = new ChessGame();
+
+        game.makeMove(move("e2", "e4"));
+        game.makeMove(move("d7", "d5"));
+        game.makeMove(move("e4", "d5"));
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+
+        game.unmakeMove();
+        game.unmakeMove();
+        game.unmakeMove();
+        assertEquals(original, game);
+        assertFalse(game.getBoard().getPiece(position("e2")).getHasMoved());
+    }
+
+    @Test
+    @DisplayName("Unmake castling restores rook and castling rights")
+    public void unmakeCastle() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for(ChessMove move : new ChessMove[]{move("e2", "e4"), move("e7", "e5"), move("g1", "f3"),
+                move("b8", "c6"), move("f1", "c4"), move("g8", "f6")}){
+            game.makeMove(move);
+        }
+
+        ChessMove castle = move("e1", "g1");
+        assertTrue(game.validMoves(position("e1")).contains(castle));
+        game.makeMove(castle);
+        assertNotNull(game.getBoard().getPiece(position("f1")));
+        assertNull(game.getBoard().getPiece(position("h1")));
+
+        game.unmakeMove();
+        assertEquals(ChessPiece.PieceType.ROOK, game.getBoard().getPiece(position("h1")).getPieceType());
+        assertNull(game.getBoard().getPiece(position("f1")));
+        assertTrue(game.validMoves(position("e1")).contains(castle));
+    }
+
+    @Test
+    @DisplayName("Unmake en passant restores captured pawn and the en passant chance")
+    public void unmakeEnPassant() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for(ChessMove move : new ChessMove[]{move("e2", "e4"), move("a7", "a6"), move("e4", "e5"),
+                move("d7", "d5")}){
+            game.makeMove(move);
+        }
+
+        ChessMove enPassant = move("e5", "d6");
+        game.makeMove(enPassant);
+        assertNull(game.getBoard().getPiece(position("d5")));
+
+        game.unmakeMove();
+        assertEquals(ChessPiece.PieceType.PAWN, game.getBoard().getPiece(position("d5")).getPieceType());
+        assertTrue(game.validMoves(position("e5")).contains(enPassant));
+    }
+
+    @Test
+    @DisplayName("Unmake promotion restores the pawn")
+    public void unmakePromotion() throws InvalidMoveException {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(position("e1"), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(position("a8"), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(position("g7"), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(position("h8"), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        game.makeMove(move("g7", "h8", ChessPiece.PieceType.QUEEN));
+        assertEquals(ChessPiece.PieceType.QUEEN, game.getBoard().getPiece(position("h8")).getPieceType());
+
+        game.unmakeMove();
+        assertEquals(ChessPiece.PieceType.PAWN, game.getBoard().getPiece(position("g7")).getPieceType());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getBoard().getPiece(position("h8")).getTeamColor());
+    }
+
+    @Test
+    @DisplayName("Unmake with no moves made")
+    public void unmakeNothing() {
+        assertThrows(IllegalStateException.class, () -> new ChessGame().unmakeMove());
+    }
+}
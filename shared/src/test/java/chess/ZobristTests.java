@@ -0,0 +1,83 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTests {
+
+    private static ChessMove move(String start, String end) {
+        return new ChessMove(position(start), position(end), null);
+    }
+
+    private static ChessPosition position(String square) {
+        return new ChessPosition(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    private static ChessGame play(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for(int i = 0; i < moves.length; i += 2) {game.makeMove(move(moves[i], moves[i + 1]));}
+        return game;
+    }
+
+    @Test
+    @DisplayName("Transpositions share a key")
+    public void transposition() throws InvalidMoveException {
+        ChessGame first = play("g1", "f3", "g8", "f6", "b1", "c3");
+        ChessGame second = play("b1", "c3", "g8", "f6", "g1", "f3");
+
+        assertEquals(first.getZobristKey(), second.getZobristKey());
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    @DisplayName("Side to move changes the key")
+    public void sideToMove() {
+        ChessGame game = new ChessGame();
+        long whiteKey = game.getZobristKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertNotEquals(whiteKey, game.getZobristKey());
+        assertEquals(whiteKey, game.getBoard().getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Castling rights and en passant change the key")
+    public void castlingAndEnPassant() throws InvalidMoveException {
+        // Both games reach the same placement, but only one king has moved
+        ChessGame kept = play("e2", "e4", "e7", "e5", "g1", "f3", "g8", "f6");
+        ChessGame lost = play("e2", "e4", "e7", "e5", "e1", "e2", "g8", "f6", "e2", "e1", "f6", "g8",
+                "g1", "f3", "g8", "f6");
+        assertEquals(kept.getBoard(), lost.getBoard());
+        assertNotEquals(kept.getZobristKey(), lost.getZobristKey());
+
+        // Clearing the en passant chance of the pawn that just moved two squares
+        ChessGame doublePush = play("e2", "e4", "a7", "a6", "e4", "e5", "d7", "d5");
+        long key = doublePush.getZobristKey();
+        doublePush.getBoard().setEnPassantTarget(null);
+        assertNotEquals(key, doublePush.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Unmake restores the key")
+    public void unmake() throws InvalidMoveException {
+        ChessGame game = play("e2", "e4", "d7", "d5");
+        long key = game.getZobristKey();
+        game.makeMove(move("e4", "d5"));
+        assertNotEquals(key, game.getZobristKey());
+
+        game.unmakeMove();
+        assertEquals(key, game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Key survives serialization")
+    public void serialization() throws InvalidMoveException {
+        ChessGame game = play("e2", "e4", "c7", "c5");
+        ChessGame copy = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+    }
+}
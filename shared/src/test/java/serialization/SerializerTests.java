@@ -0,0 +1,40 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.Fen;
+import model.GameData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializerTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Game shortcuts match the shared Gson")
+    public void gameShortcuts() {
+        ChessGame game = Fen.read(KIWIPETE);
+        String json = Serializer.gameToJson(game);
+
+        assertEquals(Serializer.toJson(game), json);
+        assertEquals(game, Serializer.gameFromJson(json));
+        assertEquals(game, Serializer.fromJson(json, ChessGame.class));
+        assertNull(Serializer.gameFromJson(null));
+    }
+
+    @Test
+    @DisplayName("Games nested in messages use the compact format")
+    public void nestedGame() {
+        ChessGame game = Fen.read(KIWIPETE);
+        LoadGameMessage message = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME,
+                new GameData(1, "white", null, "game", game));
+
+        String json = Serializer.toJson(message);
+        assertTrue(json.contains("\"placement\":\"r3k2r/"));
+        assertEquals(game, Serializer.fromJson(json, LoadGameMessage.class).getGame().game());
+    }
+}